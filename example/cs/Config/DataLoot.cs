@@ -82,12 +82,7 @@ namespace Config
 
         internal void _resolve(Config.LoadErrors errors)
         {
-            ListRefLootid = new List<Config.DataLootitem>();
-            foreach (var v in Config.DataLootitem.All())
-            {
-            if (v.Lootid.Equals(Lootid))
-                ListRefLootid.Add(v);
-            }
+            ListRefLootid = Config.DataLootitem._groupByLootid(Lootid);
 	    }
 
     }
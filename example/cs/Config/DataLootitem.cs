@@ -62,6 +62,14 @@ namespace Config
             return all.TryGetValue(new LootidItemidKey(lootid, itemid), out v) ? v : null;
         }
 
+        static Dictionary<int, List<DataLootitem>> lootidGroup = null;
+
+        internal static List<DataLootitem> _groupByLootid(int lootid)
+        {
+            List<DataLootitem> v;
+            return lootidGroup.TryGetValue(lootid, out v) ? new List<DataLootitem>(v) : new List<DataLootitem>();
+        }
+
         public static List<DataLootitem> All()
         {
             return all.OrderedValues;
@@ -81,9 +89,17 @@ namespace Config
         internal static void Initialize(Config.Stream os, Config.LoadErrors errors)
         {
             all = new Config.KeyedList<LootidItemidKey, DataLootitem>();
+            lootidGroup = new Dictionary<int, List<DataLootitem>>();
             for (var c = os.ReadInt32(); c > 0; c--) {
                 var self = _create(os);
                 all.Add(new LootidItemidKey(self.Lootid, self.Itemid), self);
+                List<DataLootitem> lootidGroupRows;
+                if (!lootidGroup.TryGetValue(self.Lootid, out lootidGroupRows))
+                {
+                    lootidGroupRows = new List<DataLootitem>();
+                    lootidGroup.Add(self.Lootid, lootidGroupRows);
+                }
+                lootidGroupRows.Add(self);
             }
         }
 
@@ -12,24 +12,44 @@ public class ConfigMgr {
     }
 
 
-    public final java.util.Map<Integer, config.equip.Jewelry> equip_jewelry_All = new java.util.LinkedHashMap<>();
+    public final configgen.genjava.IntMap<config.equip.Jewelry> equip_jewelry_All;
 
-    public final java.util.Map<config.LevelRank, config.equip.Jewelryrandom> equip_jewelryrandom_All = new java.util.LinkedHashMap<>();
+    public final java.util.Map<config.LevelRank, config.equip.Jewelryrandom> equip_jewelryrandom_All;
 
-    public final java.util.Map<Integer, config.equip.Jewelrysuit> equip_jewelrysuit_All = new java.util.LinkedHashMap<>();
+    public final configgen.genjava.IntMap<config.equip.Jewelrysuit> equip_jewelrysuit_All;
 
 
-    public final java.util.Map<Integer, config.equip.Rank_Detail> equip_rank_All = new java.util.LinkedHashMap<>();
+    public final configgen.genjava.IntMap<config.equip.Rank_Detail> equip_rank_All;
 
-    public final java.util.Map<Integer, config.Loot> loot_All = new java.util.LinkedHashMap<>();
+    public final configgen.genjava.IntMap<config.Loot> loot_All;
 
-    public final java.util.Map<config.Lootitem.LootidItemidKey, config.Lootitem> lootitem_All = new java.util.LinkedHashMap<>();
+    public final configgen.genjava.LongMap<config.Lootitem> lootitem_All;
+    public final java.util.Map<Integer, java.util.List<config.Lootitem>> lootitem_LootidGroup;
 
-    public final java.util.Map<Integer, config.Monster> monster_All = new java.util.LinkedHashMap<>();
+    public final configgen.genjava.IntMap<config.Monster> monster_All;
 
-    public final java.util.Map<Integer, config.Signin> signin_All = new java.util.LinkedHashMap<>();
+    public final configgen.genjava.IntMap<config.Signin> signin_All;
 
 
-    public final java.util.Map<Integer, config.task.Task> task_task_All = new java.util.LinkedHashMap<>();
+    public final configgen.genjava.IntMap<config.task.Task> task_task_All;
 
+    public ConfigMgr() {
+        this(null, null);
+    }
+
+    /**
+     * reload用，old不为null时不在reloaded里的表直接用old的容器，在的新建
+     */
+    ConfigMgr(ConfigMgr old, java.util.Set<String> reloaded) {
+        equip_jewelry_All = old == null || reloaded.contains("equip.jewelry") ? new configgen.genjava.IntMap<>() : old.equip_jewelry_All;
+        equip_jewelryrandom_All = old == null || reloaded.contains("equip.jewelryrandom") ? new java.util.LinkedHashMap<>() : old.equip_jewelryrandom_All;
+        equip_jewelrysuit_All = old == null || reloaded.contains("equip.jewelrysuit") ? new configgen.genjava.IntMap<>() : old.equip_jewelrysuit_All;
+        equip_rank_All = old == null || reloaded.contains("equip.rank") ? new configgen.genjava.IntMap<>() : old.equip_rank_All;
+        loot_All = old == null || reloaded.contains("loot") ? new configgen.genjava.IntMap<>() : old.loot_All;
+        lootitem_All = old == null || reloaded.contains("lootitem") ? new configgen.genjava.LongMap<>() : old.lootitem_All;
+        lootitem_LootidGroup = old == null || reloaded.contains("lootitem") ? new java.util.HashMap<>() : old.lootitem_LootidGroup;
+        monster_All = old == null || reloaded.contains("monster") ? new configgen.genjava.IntMap<>() : old.monster_All;
+        signin_All = old == null || reloaded.contains("signin") ? new configgen.genjava.IntMap<>() : old.signin_All;
+        task_task_All = old == null || reloaded.contains("task.task") ? new configgen.genjava.IntMap<>() : old.task_task_All;
+    }
 }
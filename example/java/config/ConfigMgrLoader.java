@@ -51,4 +51,167 @@ public class ConfigMgrLoader {
         config.task.Task._resolveAll(mgr);
         return mgr;
     }
+
+    /**
+     * 每个表的数据切出来在executor上并行解析，都解析完后再resolve
+     */
+    public static ConfigMgr load(configgen.genjava.ConfigInput input, java.util.concurrent.ExecutorService executor) {
+        ConfigMgr mgr = new ConfigMgr();
+        int c = input.readInt();
+        if (c < 9) {
+            throw new IllegalArgumentException();
+        }
+        java.util.List<java.util.concurrent.Future<?>> futures = new java.util.ArrayList<>();
+        for (int i = 0; i < c; i++) {
+            String tableName = input.readStr();
+            int tableSize = input.readInt();
+            java.util.function.Consumer<configgen.genjava.ConfigInput> create;
+            switch (tableName) {
+                case "equip.jewelry":
+                    create = in -> config.equip.Jewelry._createAll(mgr, in);
+                    break;
+                case "equip.jewelryrandom":
+                    create = in -> config.equip.Jewelryrandom._createAll(mgr, in);
+                    break;
+                case "equip.jewelrysuit":
+                    create = in -> config.equip.Jewelrysuit._createAll(mgr, in);
+                    break;
+                case "equip.rank":
+                    create = in -> config.equip.Rank_Detail._createAll(mgr, in);
+                    break;
+                case "loot":
+                    create = in -> config.Loot._createAll(mgr, in);
+                    break;
+                case "lootitem":
+                    create = in -> config.Lootitem._createAll(mgr, in);
+                    break;
+                case "monster":
+                    create = in -> config.Monster._createAll(mgr, in);
+                    break;
+                case "signin":
+                    create = in -> config.Signin._createAll(mgr, in);
+                    break;
+                case "task.task":
+                    create = in -> config.task.Task._createAll(mgr, in);
+                    break;
+                default:
+                    create = null;
+                    break;
+            }
+            if (create == null) {
+                input.skipBytes(tableSize);
+            } else {
+                configgen.genjava.ConfigInput tableInput = input.readSlice(tableSize);
+                futures.add(executor.submit(() -> create.accept(tableInput)));
+            }
+        }
+        for (java.util.concurrent.Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (java.util.concurrent.ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        config.equip.Jewelry._resolveAll(mgr);
+        config.equip.Jewelryrandom._resolveAll(mgr);
+        config.Loot._resolveAll(mgr);
+        config.task.Task._resolveAll(mgr);
+        return mgr;
+    }
+
+    /**
+     * delta是javadata配prev生成的，只含改了的表，跟load一样先Schema.create再传进来。
+     * 没改的表直接用old的容器和对象；直接或间接引用了改了的表的，复制old的对象再resolve。
+     * old的对象都不改，reload期间还在用old的线程不受影响
+     */
+    public static ConfigMgr reload(ConfigMgr old, configgen.genjava.ConfigInput delta) {
+        java.util.Map<String, configgen.genjava.ConfigInput> inputs = new java.util.LinkedHashMap<>();
+        for (int c = delta.readInt(); c > 0; c--) {
+            String tableName = delta.readStr();
+            int tableSize = delta.readInt();
+            inputs.put(tableName, delta.readSlice(tableSize));
+        }
+        java.util.Set<String> renewed = new java.util.HashSet<>(inputs.keySet());
+        for (boolean more = true; more; ) {
+            more = false;
+            if (!renewed.contains("equip.jewelry") && (renewed.contains("equip.jewelryrandom") || renewed.contains("equip.jewelrysuit") || renewed.contains("equip.rank"))) {
+                renewed.add("equip.jewelry");
+                more = true;
+            }
+            if (!renewed.contains("equip.jewelryrandom") && (renewed.contains("equip.rank"))) {
+                renewed.add("equip.jewelryrandom");
+                more = true;
+            }
+            if (!renewed.contains("loot") && (renewed.contains("lootitem"))) {
+                renewed.add("loot");
+                more = true;
+            }
+            if (!renewed.contains("task.task") && (renewed.contains("monster"))) {
+                renewed.add("task.task");
+                more = true;
+            }
+        }
+        ConfigMgr mgr = new ConfigMgr(old, renewed);
+        for (java.util.Map.Entry<String, configgen.genjava.ConfigInput> e : inputs.entrySet()) {
+            switch (e.getKey()) {
+                case "equip.jewelry":
+                    config.equip.Jewelry._createAll(mgr, e.getValue());
+                    break;
+                case "equip.jewelryrandom":
+                    config.equip.Jewelryrandom._createAll(mgr, e.getValue());
+                    break;
+                case "equip.jewelrysuit":
+                    config.equip.Jewelrysuit._createAll(mgr, e.getValue());
+                    break;
+                case "equip.rank":
+                    config.equip.Rank_Detail._createAll(mgr, e.getValue());
+                    break;
+                case "loot":
+                    config.Loot._createAll(mgr, e.getValue());
+                    break;
+                case "lootitem":
+                    config.Lootitem._createAll(mgr, e.getValue());
+                    break;
+                case "monster":
+                    config.Monster._createAll(mgr, e.getValue());
+                    break;
+                case "signin":
+                    config.Signin._createAll(mgr, e.getValue());
+                    break;
+                case "task.task":
+                    config.task.Task._createAll(mgr, e.getValue());
+                    break;
+            }
+        }
+        if (renewed.contains("equip.jewelry") && !inputs.containsKey("equip.jewelry")) {
+            config.equip.Jewelry._copyAll(mgr, old);
+        }
+        if (renewed.contains("equip.jewelryrandom") && !inputs.containsKey("equip.jewelryrandom")) {
+            config.equip.Jewelryrandom._copyAll(mgr, old);
+        }
+        if (renewed.contains("loot") && !inputs.containsKey("loot")) {
+            config.Loot._copyAll(mgr, old);
+        }
+        if (renewed.contains("task.task") && !inputs.containsKey("task.task")) {
+            config.task.Task._copyAll(mgr, old);
+        }
+
+        if (renewed.contains("equip.jewelry")) {
+            config.equip.Jewelry._resolveAll(mgr);
+        }
+        if (renewed.contains("equip.jewelryrandom")) {
+            config.equip.Jewelryrandom._resolveAll(mgr);
+        }
+        if (renewed.contains("loot")) {
+            config.Loot._resolveAll(mgr);
+        }
+        if (renewed.contains("task.task")) {
+            config.task.Task._resolveAll(mgr);
+        }
+        return mgr;
+    }
 }
@@ -56,6 +56,13 @@ public class LevelRank {
         return "(" + level + "," + rank + ")";
     }
 
+    public LevelRank _copy() {
+        LevelRank self = new LevelRank();
+        self.level = level;
+        self.rank = rank;
+        return self;
+    }
+
     public void _resolve(config.ConfigMgr mgr) {
         RefRank = config.equip.Rank.get(rank);
         java.util.Objects.requireNonNull(RefRank);
@@ -55,11 +55,17 @@ public class Loot {
         return "(" + lootid + "," + ename + "," + name + "," + chanceList + ")";
     }
 
+    public Loot _copy() {
+        Loot self = new Loot();
+        self.lootid = lootid;
+        self.ename = ename;
+        self.name = name;
+        self.chanceList = chanceList;
+        return self;
+    }
+
     public void _resolve(config.ConfigMgr mgr) {
-        mgr.lootitem_All.values().forEach( v -> {
-            if (v.getLootid() == lootid)
-                ListRefLootid.add(v);
-        });
+        ListRefLootid = new java.util.ArrayList<>(mgr.lootitem_LootidGroup.getOrDefault(lootid, java.util.Collections.emptyList()));
     }
 
     public static Loot get(int lootid) {
@@ -79,6 +85,16 @@ public class Loot {
         }
     }
 
+    /**
+     * reload时表没改但引用的表改了，复制old的对象放进mgr再resolve，old的对象不动
+     */
+    public static void _copyAll(config.ConfigMgr mgr, config.ConfigMgr old) {
+        for (Loot e : old.loot_All.values()) {
+            Loot self = e._copy();
+            mgr.loot_All.put(self.lootid, self);
+        }
+    }
+
     public static void _resolveAll(config.ConfigMgr mgr) {
         for (Loot e : mgr.loot_All.values()) {
             e._resolve(mgr);
@@ -60,32 +60,9 @@ public class Lootitem {
         return "(" + lootid + "," + itemid + "," + chance + "," + countmin + "," + countmax + ")";
     }
 
-    public static class LootidItemidKey {
-        private int lootid;
-        private int itemid;
-
-        LootidItemidKey(int lootid, int itemid) {
-            this.lootid = lootid;
-            this.itemid = itemid;
-        }
-
-        @Override
-        public int hashCode() {
-            return lootid + itemid;
-        }
-
-        @Override
-        public boolean equals(Object other) {
-            if (null == other || !(other instanceof LootidItemidKey))
-                return false;
-            LootidItemidKey o = (LootidItemidKey) other;
-            return lootid == o.lootid && itemid == o.itemid;
-        }
-    }
-
     public static Lootitem get(int lootid, int itemid) {
         config.ConfigMgr mgr = config.ConfigMgr.getMgr();
-        return mgr.lootitem_All.get(new LootidItemidKey(lootid, itemid));
+        return mgr.lootitem_All.get(configgen.genjava.LongMap.pack(lootid, itemid));
     }
 
     public static java.util.Collection<Lootitem> all() {
@@ -96,7 +73,8 @@ public class Lootitem {
     public static void _createAll(config.ConfigMgr mgr, configgen.genjava.ConfigInput input) {
         for (int c = input.readInt(); c > 0; c--) {
             Lootitem self = Lootitem._create(input);
-            mgr.lootitem_All.put(new LootidItemidKey(self.lootid, self.itemid), self);
+            mgr.lootitem_All.put(configgen.genjava.LongMap.pack(self.lootid, self.itemid), self);
+            mgr.lootitem_LootidGroup.computeIfAbsent(self.lootid, k -> new java.util.ArrayList<>()).add(self);
         }
     }
 
@@ -125,6 +125,21 @@ public class Jewelry {
         return "(" + iD + "," + name + "," + iconFile + "," + lvlRank + "," + type + "," + suitID + "," + keyAbility + "," + keyAbilityValue + "," + salePrice + "," + description + ")";
     }
 
+    public Jewelry _copy() {
+        Jewelry self = new Jewelry();
+        self.iD = iD;
+        self.name = name;
+        self.iconFile = iconFile;
+        self.lvlRank = lvlRank._copy();
+        self.type = type;
+        self.suitID = suitID;
+        self.keyAbility = keyAbility;
+        self.keyAbilityValue = keyAbilityValue;
+        self.salePrice = salePrice;
+        self.description = description;
+        return self;
+    }
+
     public void _resolve(config.ConfigMgr mgr) {
         lvlRank._resolve(mgr);
         RefLvlRank = mgr.equip_jewelryrandom_All.get(lvlRank);
@@ -153,6 +168,16 @@ public class Jewelry {
         }
     }
 
+    /**
+     * reload时表没改但引用的表改了，复制old的对象放进mgr再resolve，old的对象不动
+     */
+    public static void _copyAll(config.ConfigMgr mgr, config.ConfigMgr old) {
+        for (Jewelry e : old.equip_jewelry_All.values()) {
+            Jewelry self = e._copy();
+            mgr.equip_jewelry_All.put(self.iD, self);
+        }
+    }
+
     public static void _resolveAll(config.ConfigMgr mgr) {
         for (Jewelry e : mgr.equip_jewelry_All.values()) {
             e._resolve(mgr);
@@ -55,6 +55,15 @@ public class Jewelryrandom {
         return "(" + lvlRank + "," + attackRange + "," + otherRange + "," + testRange + ")";
     }
 
+    public Jewelryrandom _copy() {
+        Jewelryrandom self = new Jewelryrandom();
+        self.lvlRank = lvlRank._copy();
+        self.attackRange = attackRange;
+        self.otherRange = otherRange;
+        self.testRange = testRange;
+        return self;
+    }
+
     public void _resolve(config.ConfigMgr mgr) {
         lvlRank._resolve(mgr);
     }
@@ -76,6 +85,16 @@ public class Jewelryrandom {
         }
     }
 
+    /**
+     * reload时表没改但引用的表改了，复制old的对象放进mgr再resolve，old的对象不动
+     */
+    public static void _copyAll(config.ConfigMgr mgr, config.ConfigMgr old) {
+        for (Jewelryrandom e : old.equip_jewelryrandom_All.values()) {
+            Jewelryrandom self = e._copy();
+            mgr.equip_jewelryrandom_All.put(self.lvlRank, self);
+        }
+    }
+
     public static void _resolveAll(config.ConfigMgr mgr) {
         for (Jewelryrandom e : mgr.equip_jewelryrandom_All.values()) {
             e._resolve(mgr);
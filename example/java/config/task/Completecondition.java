@@ -6,6 +6,10 @@ public interface Completecondition {
     default void _resolve(config.ConfigMgr mgr) {
     }
 
+    default Completecondition _copy() {
+        return this;
+    }
+
     static Completecondition _create(configgen.genjava.ConfigInput input) {
         switch(input.readStr()) {
             case "KillMonster":
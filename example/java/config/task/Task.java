@@ -60,6 +60,17 @@ public class Task {
         return "(" + taskid + "," + name + "," + desc + "," + nexttask + "," + completecondition + "," + exp + ")";
     }
 
+    public Task _copy() {
+        Task self = new Task();
+        self.taskid = taskid;
+        self.name = name;
+        self.desc = desc;
+        self.nexttask = nexttask;
+        self.completecondition = completecondition._copy();
+        self.exp = exp;
+        return self;
+    }
+
     public void _resolve(config.ConfigMgr mgr) {
         completecondition._resolve(mgr);
     }
@@ -81,6 +92,16 @@ public class Task {
         }
     }
 
+    /**
+     * reload时表没改但引用的表改了，复制old的对象放进mgr再resolve，old的对象不动
+     */
+    public static void _copyAll(config.ConfigMgr mgr, config.ConfigMgr old) {
+        for (Task e : old.task_task_All.values()) {
+            Task self = e._copy();
+            mgr.task_task_All.put(self.taskid, self);
+        }
+    }
+
     public static void _resolveAll(config.ConfigMgr mgr) {
         for (Task e : mgr.task_task_All.values()) {
             e._resolve(mgr);
@@ -50,6 +50,14 @@ public class ConditionAnd implements config.task.Completecondition {
         return "(" + cond1 + "," + cond2 + ")";
     }
 
+    @Override
+    public ConditionAnd _copy() {
+        ConditionAnd self = new ConditionAnd();
+        self.cond1 = cond1._copy();
+        self.cond2 = cond2._copy();
+        return self;
+    }
+
     @Override
     public void _resolve(config.ConfigMgr mgr) {
         cond1._resolve(mgr);
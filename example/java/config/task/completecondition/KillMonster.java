@@ -55,6 +55,14 @@ public class KillMonster implements config.task.Completecondition {
         return "(" + monsterid + "," + count + ")";
     }
 
+    @Override
+    public KillMonster _copy() {
+        KillMonster self = new KillMonster();
+        self.monsterid = monsterid;
+        self.count = count;
+        return self;
+    }
+
     @Override
     public void _resolve(config.ConfigMgr mgr) {
         RefMonsterid = mgr.monster_All.get(monsterid);
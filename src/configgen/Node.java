@@ -28,6 +28,15 @@ public class Node {
         }
     }
 
+    /**
+     * 重建子节点时用，新节点构造时已经加到children的最后
+     */
+    protected void removeChild(Node child) {
+        if (children != null) {
+            children.remove(child);
+        }
+    }
+
     @Override
     public String toString() {
         return fullName();
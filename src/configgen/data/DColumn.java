@@ -1,7 +1,6 @@
 package configgen.data;
 
 import configgen.Node;
-import configgen.util.CSVParser;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -36,13 +35,14 @@ final class DColumn extends Node {
 
     private Set<String> dataSet() {
         Set<String> r = new HashSet<>();
-        for (List<String> row : ((DTable) parent).getRecordList()){
-            if (CSVParser.isEmptyRecord(row)){
+        DTable table = (DTable) parent;
+        for (int row = 0; row < table.getRecordCount(); row++) {
+            if (table.isEmptyRecord(row)) {
                 continue;
             }
 
             for (Integer index : indexes) {
-                r.add(row.get(index));
+                r.add(table.getCell(row, index));
             }
         }
         return r;
@@ -55,14 +55,15 @@ final class DColumn extends Node {
 
     private Pair dataKeyValueSet() {
         Pair res = new Pair();
-        for (List<String> row : ((DTable) parent).getRecordList()) {
-            if (CSVParser.isEmptyRecord(row)){
+        DTable table = (DTable) parent;
+        for (int row = 0; row < table.getRecordCount(); row++) {
+            if (table.isEmptyRecord(row)) {
                 continue;
             }
 
             int i = 0;
             for (Integer index : indexes) {
-                String r = row.get(index);
+                String r = table.getCell(row, index);
                 if (i % 2 == 0)
                     res.key.add(r);
                 else
@@ -7,6 +7,8 @@ import configgen.define.Table;
 import configgen.type.TDb;
 import configgen.type.TTable;
 import configgen.util.CSVParser;
+import configgen.util.CSVTable;
+import configgen.util.CSVTableCache;
 
 import java.io.IOException;
 import java.nio.file.FileVisitResult;
@@ -14,17 +16,35 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class DDb extends Node {
     private final Path dataDir;
     private final Map<String, DTable> dTables = new HashMap<>();
+    private final String dataEncoding;
+    private final CSVTableCache cache;
 
     public DDb(Path _dataDir, String dataEncoding) {
+        this(_dataDir, dataEncoding, 1, null);
+    }
+
+    /**
+     * @param threads  读取解析csv的线程数，<=1 则单线程顺序读取。
+     *                 多线程时dTables和出错信息与单线程一致：按遍历顺序构造DTable，抛出遍历顺序上第一个错误。
+     * @param cacheDir 解析结果的缓存目录，null则不缓存
+     */
+    public DDb(Path _dataDir, String dataEncoding, int threads, Path cacheDir) {
         super(null, "ddb");
         dataDir = _dataDir;
+        this.dataEncoding = dataEncoding;
+        cache = cacheDir != null ? new CSVTableCache(cacheDir) : null;
 
 
 //        System.gc();
@@ -34,17 +54,13 @@ public class DDb extends Node {
 //        Logger.mm("==");
 //        System.exit(1);
 
+        List<Path> csvFiles = new ArrayList<>();
         try {
             Files.walkFileTree(dataDir, new SimpleFileVisitor<Path>() {
                 @Override
                 public FileVisitResult visitFile(Path file, BasicFileAttributes a) {
-                    String path = dataDir.relativize(file).toString();
-                    if (path.endsWith(".csv")) {
-                        String p = path.substring(0, path.length() - 4);
-                        String configName = String.join(".", p.split("[\\\\/]")).toLowerCase();
-                        List<List<String>> allLines = CSVParser.readFromFile(file, dataEncoding);
-//                        Logger.mm(file.toString());
-                        dTables.put(configName, new DTable(DDb.this, configName, allLines));
+                    if (file.toString().endsWith(".csv")) {
+                        csvFiles.add(file);
                     }
                     return FileVisitResult.CONTINUE;
                 }
@@ -52,6 +68,86 @@ public class DDb extends Node {
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+
+        if (threads <= 1 || csvFiles.size() <= 1) {
+            for (Path file : csvFiles) {
+                String configName = configName(file);
+                CSVTable allLines = readTable(file, dataEncoding);
+//                Logger.mm(file.toString());
+                dTables.put(configName, new DTable(this, configName, allLines));
+            }
+        } else {
+            readParallel(csvFiles, dataEncoding, threads);
+        }
+    }
+
+    private String configName(Path file) {
+        String path = dataDir.relativize(file).toString();
+        String p = path.substring(0, path.length() - 4);
+        return String.join(".", p.split("[\\\\/]")).toLowerCase();
+    }
+
+    private CSVTable readTable(Path file, String dataEncoding) {
+        if (cache != null) {
+            return cache.readTableFromFile(file, dataDir.relativize(file).toString(), dataEncoding);
+        }
+        return CSVParser.readTableFromFile(file, dataEncoding);
+    }
+
+    private void readParallel(List<Path> csvFiles, String dataEncoding, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, csvFiles.size()));
+        try {
+            List<Future<CSVTable>> futures = new ArrayList<>(csvFiles.size());
+            for (Path file : csvFiles) {
+                futures.add(executor.submit(() -> readTable(file, dataEncoding)));
+            }
+
+            // DTable是Node，构造时要挂到this的children上，所以在这个线程里按顺序构造
+            for (int i = 0; i < csvFiles.size(); i++) {
+                String configName = configName(csvFiles.get(i));
+                CSVTable allLines;
+                try {
+                    allLines = futures.get(i).get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(ex);
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new RuntimeException(cause);
+                }
+                dTables.put(configName, new DTable(this, configName, allLines));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * watch模式用，重新读取一个改动了的csv，替换原来的DTable。
+     * 新表，或前2行（列描述和列名）变了会影响config.xml，返回null，由调用者整体重建
+     */
+    public DTable reloadTable(Path file, TDb typeDb) {
+        String configName = configName(file);
+        DTable old = dTables.get(configName);
+        TTable ttable = typeDb.getTTable(configName);
+        if (old == null || ttable == null) {
+            return null;
+        }
+
+        DTable dTable = new DTable(this, configName, readTable(file, dataEncoding));
+        if (!dTable.hasSameHeader(old)) {
+            removeChild(dTable);
+            return null;
+        }
+        dTable.parse(ttable);
+        removeChild(old);
+        dTables.put(configName, dTable);
+        return dTable;
     }
 
     public DTable getDTable(String tableName){
@@ -7,13 +7,14 @@ import configgen.define.Column;
 import configgen.define.Db;
 import configgen.define.Table;
 import configgen.type.*;
+import configgen.util.CSVTable;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class DTable extends Node {
     private final Map<String, DColumn> dcolumns = new LinkedHashMap<>();
-    private final List<List<String>> recordList;
+    private final CSVTable records; //前2行是desc和name，之后是数据
     private final List<String> descLine;
     private final List<String> nameLine;
 
@@ -34,27 +35,42 @@ public class DTable extends Node {
         NORM, MAYBE_LIST_OR_MAP, LIST, MAYBE_MAP, MAYBE_MAP2, MAP
     }
 
-    DTable(DDb parent, String name, List<List<String>> raw) {
+    DTable(DDb parent, String name, CSVTable raw) {
         super(parent, name);
-        if (raw.size() < 2) {
+        if (raw.getRowCount() < 2) {
             System.out.println(fullName() + " 数据行数小于2");
-            for (List<String> strings : raw) {
-                System.out.println(String.join(",", strings));
+            for (int r = 0; r < raw.getRowCount(); r++) {
+                System.out.println(String.join(",", raw.getRow(r)));
             }
             throw new AssertionError();
         }
 
-        descLine = raw.get(0);
-        nameLine = raw.get(1);
-        recordList = raw.subList(2, raw.size());
+        descLine = raw.getRow(0);
+        nameLine = raw.getRow(1);
+        records = raw;
     }
 
     public List<Integer> getColumnIndexes(String columnName){
         return dcolumns.get(columnName).indexes;
     }
 
-    public List<List<String>> getRecordList() {
-        return recordList;
+    public int getRecordCount() {
+        return records.getRowCount() - 2;
+    }
+
+    public boolean isEmptyRecord(int record) {
+        return records.isEmptyRow(record + 2);
+    }
+
+    /**
+     * 这时才构造格子的String
+     */
+    public String getCell(int record, int columnIndex) {
+        return records.get(record + 2, columnIndex);
+    }
+
+    boolean hasSameHeader(DTable other) {
+        return descLine.equals(other.descLine) && nameLine.equals(other.nameLine);
     }
 
     void autoCompleteDefine(Table table) {
@@ -29,11 +29,13 @@ public class Column extends Node {
 
     public ForeignKey foreignKey;
     public KeyRange keyRange;
+    // 生成按这列排好序的索引，可以二分查找floor，ceiling，range
+    public boolean rangeIndex;
 
     Column(Bean _parent, Element self) {
         super(_parent, self.getAttribute("name"));
         DomUtils.permitAttributes(self, "desc", "name", "type", "own",
-                "ref", "refType", "keyRef", "range", "compress", "compressAsOne");
+                "ref", "refType", "keyRef", "range", "compress", "compressAsOne", "rangeIndex");
         desc = self.getAttribute("desc");
         type = self.getAttribute("type");
         own = self.getAttribute("own");
@@ -42,6 +44,7 @@ public class Column extends Node {
             foreignKey = new ForeignKey(this, self);
         if (self.hasAttribute("range"))
             keyRange = new KeyRange(this, self);
+        rangeIndex = self.hasAttribute("rangeIndex");
 
         if (self.hasAttribute("compressAsOne")) {
             compressType = CompressType.AsOne;
@@ -72,6 +75,7 @@ public class Column extends Node {
             foreignKey = new ForeignKey(this, original.foreignKey);
         if (original.keyRange != null)
             keyRange = new KeyRange(this, original.keyRange);
+        rangeIndex = original.rangeIndex;
 
         compressType = original.compressType;
         compressSeparator = original.compressSeparator;
@@ -110,5 +114,7 @@ public class Column extends Node {
             foreignKey.update(self);
         if (keyRange != null)
             keyRange.update(self);
+        if (rangeIndex)
+            self.setAttribute("rangeIndex", "true");
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package configgen.define;
+
+import configgen.Node;
+import configgen.util.DomUtils;
+import org.w3c.dom.Element;
+
+/**
+ * 非唯一的索引，生成代码在读入时按keys分组，getAllByXxx直接取组
+ */
+public class Index extends Node {
+    public final String[] keys;
+
+    Index(Table parent, Element self) {
+        super(parent, "index");
+        keys = DomUtils.parseStringArray(self, "keys");
+    }
+
+    Index(Table _parent, Index original) {
+        super(_parent, original.name);
+        keys = original.keys;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", keys);
+    }
+
+    void save(Element parent) {
+        DomUtils.newChild(parent, "index").setAttribute("keys", this.toString());
+    }
+}
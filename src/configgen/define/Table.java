@@ -22,11 +22,12 @@ public class Table extends Node {
     public boolean isPrimaryKeySeq;
 
     public final Map<String, UniqueKey> uniqueKeys = new LinkedHashMap<>();
+    public final Map<String, Index> indexes = new LinkedHashMap<>();
 
     Table(Db parent, Element self) {
         super(parent, self.getAttribute("name"));
         DomUtils.permitAttributes(self, "name", "own", "enum", "enumPart", "primaryKey", "isPrimaryKeySeq");
-        DomUtils.permitElements(self, "column", "foreignKey", "range", "uniqueKey");
+        DomUtils.permitElements(self, "column", "foreignKey", "range", "uniqueKey", "index");
 
         bean = new Bean(this, self);
 
@@ -59,6 +60,14 @@ public class Table extends Node {
             UniqueKey old = uniqueKeys.put(uk.toString(), uk);
             require(old == null, "uniqueKey重复", uk);
         }
+
+        for (Element ele : DomUtils.elements(self, "index")) {
+            Index idx = new Index(this, ele);
+            require(!Arrays.equals(idx.keys, primaryKey), "index和primaryKey重复", idx);
+            require(!uniqueKeys.containsKey(idx.toString()), "index和uniqueKey重复", idx);
+            Index old = indexes.put(idx.toString(), idx);
+            require(old == null, "index重复", idx);
+        }
     }
 
     public boolean isEnum() {
@@ -117,6 +126,11 @@ public class Table extends Node {
                 part.uniqueKeys.put(n, new UniqueKey(part, uk));
             }
         });
+        indexes.forEach((n, idx) -> {
+            if (part.bean.columns.keySet().containsAll(Arrays.asList(idx.keys))) {
+                part.indexes.put(n, new Index(part, idx));
+            }
+        });
         return part;
     }
 
@@ -133,6 +147,7 @@ public class Table extends Node {
     void save(Element parent) {
         Element self = DomUtils.newChild(parent, "table");
         uniqueKeys.values().forEach(c -> c.save(self));
+        indexes.values().forEach(c -> c.save(self));
         bean.update(self);
         switch (enumType) {
             case None:
@@ -2,13 +2,18 @@ package configgen.gen;
 
 import configgen.Logger;
 import configgen.data.DDb;
+import configgen.data.DTable;
 import configgen.define.Db;
 import configgen.type.TDb;
 import configgen.value.I18n;
 import configgen.value.VDb;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 
 public class Context {
@@ -17,12 +22,14 @@ public class Context {
     private final TDb type;
     private final DDb data;
     private final I18n i18n;
+    private final int threads;
 
     private VDb lastValue;
     private String lastValueOwn;
 
-    Context(Path dataDir, File xmlFile, String encoding, String i18nFile, String i18nEncoding, boolean crlfaslf) {
+    Context(Path dataDir, File xmlFile, String encoding, String i18nFile, String i18nEncoding, boolean crlfaslf, int threads, Path csvCacheDir) {
         this.dataDir = dataDir;
+        this.threads = threads;
         Logger.mm("start");
         define = new Db(xmlFile);
         Logger.mm("define");
@@ -32,7 +39,7 @@ public class Context {
         defineType.resolve();
         //type.dump(System.out);
 
-        data = new DDb(dataDir, encoding);
+        data = new DDb(dataDir, encoding, threads, csvCacheDir);
         Logger.mm("data");
         data.autoCompleteDefine(define, defineType);
         define.save(xmlFile, encoding);
@@ -94,8 +101,36 @@ public class Context {
         return value;
     }
 
+    /**
+     * watch模式用，只重新读取改动了的csv，重建对应的VTable，再校验这些表和引用到它们的表。
+     * 返回false表示改动会影响config.xml（表增删，列改动），要整体重建Context
+     */
+    boolean reload(Collection<Path> changedCsvFiles) {
+        List<DTable> dTables = new ArrayList<>(changedCsvFiles.size());
+        for (Path file : changedCsvFiles) {
+            if (!Files.isRegularFile(file)) {
+                return false;
+            }
+            DTable dTable = data.reloadTable(file, type);
+            if (dTable == null) {
+                return false;
+            }
+            dTables.add(dTable);
+        }
+        Logger.mm("data");
+
+        VDb value = lastValue;
+        lastValue = null; //出错后不能再用
+        if (value != null && (lastValueOwn == null || lastValueOwn.isEmpty())) {
+            value.reloadTables(dTables);
+            lastValue = value;
+            Logger.mm("verify");
+        }
+        return true;
+    }
+
     private VDb make(TDb myType) {
-        VDb value = new VDb(myType, data, i18n);
+        VDb value = new VDb(myType, data, i18n, threads);
         Logger.mm("value");
         value.verifyConstraint();
         return value;
@@ -4,14 +4,17 @@ import configgen.Logger;
 import configgen.genallref.GenAllRefValues;
 import configgen.gencs.GenCs;
 import configgen.gencs.GenPack;
+import configgen.genjava.BinaryBenchmark;
 import configgen.genjava.BinaryToText;
 import configgen.genjava.GenJavaCode;
 import configgen.genjava.GenJavaData;
 import configgen.geni18n.GenI18n;
 import configgen.genlua.GenLua;
+import configgen.util.CSVParser;
 import configgen.util.CachedFiles;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -27,15 +30,20 @@ public final class Main {
         System.out.println("    -datadir      配表所在目录");
         System.out.println("    -xml          配表结构文件，默认是config.xml");
         System.out.println("    -encoding     配表和配表结构文件的编码，默认是GBK，如果文件中含有bom则用bom标记的编码");
+        System.out.println("    -threads      读取csv，构造和校验数据的线程数，默认是1单线程");
+        System.out.println("    -csvcache     csv解析结果缓存目录，没改过的csv直接读缓存，默认不缓存");
+        System.out.println("    -mmap         csv用内存映射按字节解析，只对UTF-8,GBK生效，windows下文件在gc前会被锁住");
 
         System.out.println("    -i18nfile     国际化需要的文件，如果不用国际化，就不要配置");
         System.out.println("    -i18nencoding 国际化需要的文件的编码，默认是GBK，如果文件中含有bom则用bom标记的编码");
         System.out.println("    -i18ncrlfaslf 把字符串里的\\r\\n 替换为 \\n，默认是false");
 
         System.out.println("    -binaryToText 后可接2个参数（java data的file，table名称-用startsWith匹配），打印table的定义和数据");
+        System.out.println("    -binaryBenchmark 后可接2个参数（java data的file，轮数默认10），比较DataInputStream和ByteBuffer读取的耗时");
         System.out.println("    -search       后可接多个数字，找到匹配的数据");
 
         System.out.println("    -verify       检查配表约束");
+        System.out.println("    -watch        常驻监视数据目录和配表结构文件，改动后增量校验并重新生成");
         System.out.println("    -dump         打印内部树结构");
         System.out.println("    -v[1]         输出一些额外信息,1是额外gc测试内存");
 
@@ -59,13 +67,18 @@ public final class Main {
         String i18nfile = null;
         String i18nencoding = "GBK";
         boolean i18ncrlfaslf = false;
+        int threads = 1;
+        Path csvCacheDir = null;
         boolean verify = false;
+        boolean watch = false;
         List<Generator> generators = new ArrayList<>();
 
         boolean dump = false;
 
         String binaryToTextFile = null;
         String match = null;
+        String binaryBenchmarkFile = null;
+        int binaryBenchmarkRounds = 10;
 
         Set<Integer> searchIntegers = null;
 
@@ -80,6 +93,15 @@ public final class Main {
                 case "-encoding":
                     encoding = args[++i];
                     break;
+                case "-threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "-csvcache":
+                    csvCacheDir = Paths.get(args[++i]);
+                    break;
+                case "-mmap":
+                    CSVParser.enableMmap();
+                    break;
 
                 case "-i18nfile":
                     i18nfile = args[++i];
@@ -94,6 +116,9 @@ public final class Main {
                 case "-verify":
                     verify = true;
                     break;
+                case "-watch":
+                    watch = true;
+                    break;
                 case "-v":
                     Logger.enableVerbose();
                     break;
@@ -119,6 +144,12 @@ public final class Main {
                         match = args[++i];
                     }
                     break;
+                case "-binaryBenchmark":
+                    binaryBenchmarkFile = args[++i];
+                    if (i + 1 < args.length && !args[i + 1].startsWith("-")) {
+                        binaryBenchmarkRounds = Integer.parseInt(args[++i]);
+                    }
+                    break;
                 case "-search":
                     searchIntegers = new HashSet<>();
                     while (i + 1 < args.length && !args[i + 1].startsWith("-")) {
@@ -137,6 +168,11 @@ public final class Main {
             return;
         }
 
+        if (binaryBenchmarkFile != null) {
+            BinaryBenchmark.run(binaryBenchmarkFile, binaryBenchmarkRounds);
+            return;
+        }
+
         if (datadir == null) {
             usage("-datadir 未配置");
             return;
@@ -145,8 +181,13 @@ public final class Main {
         Path dataDir = Paths.get(datadir);
         File xmlFile = xml != null ? new File(xml) : dataDir.resolve("config.xml").toFile();
 
+        if (watch) {
+            new Watcher(dataDir, xmlFile, encoding, i18nfile, i18nencoding, i18ncrlfaslf, threads, csvCacheDir, verify, generators).run();
+            return;
+        }
+
         Logger.mm(String.format("start total memory %dm", Runtime.getRuntime().maxMemory() / 1024 / 1024));
-        Context ctx = new Context(dataDir, xmlFile, encoding, i18nfile, i18nencoding, i18ncrlfaslf);
+        Context ctx = new Context(dataDir, xmlFile, encoding, i18nfile, i18nencoding, i18ncrlfaslf, threads, csvCacheDir);
 
         if (dump) {
             ctx.dump();
@@ -157,6 +198,11 @@ public final class Main {
             return;
         }
 
+        generate(ctx, verify, generators);
+        Logger.mm("end");
+    }
+
+    static void generate(Context ctx, boolean verify, List<Generator> generators) throws IOException {
         if (verify) {
             Logger.verbose("-----start verify");
             ctx.makeValue();
@@ -169,7 +215,6 @@ public final class Main {
         }
 
         CachedFiles.finalExit();
-        Logger.mm("end");
     }
 
 
@@ -0,0 +1,145 @@
+package configgen.gen;
+
+import configgen.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * -watch模式：常驻内存，监视数据目录和config.xml。
+ * csv改动时只重建改动的表，校验它和引用到它的表，然后重新生成；
+ * config.xml改动，csv增删，列名改动，或上一轮出错时整体重建Context
+ */
+final class Watcher {
+    private static final long QUIET_MILLIS = 300; //一次保存可能触发多个事件，等安静下来再处理
+
+    private final Path dataDir;
+    private final Path absDataDir;
+    private final File xmlFile;
+    private final Path absXmlFile;
+    private final String encoding;
+    private final String i18nFile;
+    private final String i18nEncoding;
+    private final boolean crlfaslf;
+    private final int threads;
+    private final Path csvCacheDir;
+    private final boolean verify;
+    private final List<Generator> generators;
+
+    private WatchService watchService;
+    private Context ctx;
+    private long xmlLastModified;
+
+    Watcher(Path dataDir, File xmlFile, String encoding, String i18nFile, String i18nEncoding, boolean crlfaslf,
+            int threads, Path csvCacheDir, boolean verify, List<Generator> generators) {
+        this.dataDir = dataDir;
+        this.absDataDir = dataDir.toAbsolutePath().normalize();
+        this.xmlFile = xmlFile;
+        this.absXmlFile = xmlFile.toPath().toAbsolutePath().normalize();
+        this.encoding = encoding;
+        this.i18nFile = i18nFile;
+        this.i18nEncoding = i18nEncoding;
+        this.crlfaslf = crlfaslf;
+        this.threads = threads;
+        this.csvCacheDir = csvCacheDir;
+        this.verify = verify;
+        this.generators = generators;
+    }
+
+    void run() throws IOException, InterruptedException {
+        watchService = FileSystems.getDefault().newWatchService();
+        registerAll(absDataDir);
+        register(absXmlFile.getParent());
+        round(null);
+
+        while (true) {
+            Logger.log("watching " + absDataDir + " ...");
+            WatchKey key = watchService.take();
+            Set<Path> changedCsvFiles = new LinkedHashSet<>();
+            boolean full = false;
+            do {
+                Path dir = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        full = true;
+                        continue;
+                    }
+                    Path file = dir.resolve((Path) event.context());
+                    if (file.equals(absXmlFile)) {
+                        if (xmlFile.lastModified() != xmlLastModified) { //排除自己保存config.xml触发的事件
+                            full = true;
+                        }
+                    } else if (file.startsWith(absDataDir)) {
+                        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(file)) {
+                            registerAll(file);
+                            full = true;
+                        } else if (file.toString().endsWith(".csv")) {
+                            changedCsvFiles.add(dataDir.resolve(absDataDir.relativize(file)));
+                        }
+                    }
+                }
+                key.reset();
+            } while ((key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null);
+
+            if (full) {
+                round(null);
+            } else if (!changedCsvFiles.isEmpty()) {
+                round(changedCsvFiles);
+            }
+        }
+    }
+
+    /**
+     * @param changedCsvFiles null则整体重建
+     */
+    private void round(Set<Path> changedCsvFiles) {
+        long start = System.currentTimeMillis();
+        try {
+            if (ctx == null || changedCsvFiles == null || !ctx.reload(changedCsvFiles)) {
+                ctx = null;
+                Logger.log("rebuild all");
+                try {
+                    ctx = new Context(dataDir, xmlFile, encoding, i18nFile, i18nEncoding, crlfaslf, threads, csvCacheDir);
+                } finally {
+                    xmlLastModified = xmlFile.lastModified(); //构造时会保存config.xml
+                }
+            } else {
+                Logger.log("reload " + changedCsvFiles);
+            }
+            Main.generate(ctx, verify, generators);
+            Logger.log("done " + (System.currentTimeMillis() - start) + "ms");
+        } catch (Throwable e) {
+            e.printStackTrace();
+            ctx = null; //状态可能只更新了一部分，下次整体重建
+        }
+    }
+
+    private void registerAll(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                register(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void register(Path dir) throws IOException {
+        dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+}
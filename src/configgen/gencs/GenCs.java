@@ -14,8 +14,12 @@ import java.io.*;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -30,7 +34,7 @@ public class GenCs extends Generator {
 
             @Override
             public String usage() {
-                return "dir:Config,pkg:Config,encoding:GBK,prefix:Data    add ,own:x if need, cooperate with -gen bin, -gen pack";
+                return "dir:Config,pkg:Config,encoding:GBK,prefix:Data,intern:false    add ,own:x if need, cooperate with -gen bin, -gen pack，intern:true时值相等的bean和list共用一个对象";
             }
         });
     }
@@ -40,8 +44,10 @@ public class GenCs extends Generator {
     private final String encoding;
     private final String prefix;
     private final String own;
+    private final boolean intern;
     private File dstDir;
     private VDb value;
+    private final Map<TTable, List<String[]>> listRefGroups = new LinkedHashMap<>();
 
     private GenCs(Parameter parameter) {
         super(parameter);
@@ -50,6 +56,7 @@ public class GenCs extends Generator {
         encoding = parameter.get("encoding", "GBK");
         prefix = parameter.get("prefix", "Data");
         own = parameter.get("own", null);
+        intern = Boolean.parseBoolean(parameter.get("intern", "false"));
         parameter.end();
     }
 
@@ -57,6 +64,7 @@ public class GenCs extends Generator {
     public void generate(Context ctx) throws IOException {
         dstDir = Paths.get(dir).resolve(pkg.replace('.', '/')).toFile();
         value = ctx.makeValue(own);
+        collectListRefGroups();
         //copyFile("CSV.cs");
         //copyFile("CSVLoader.cs");
         //copyFile("LoadErrors.cs");
@@ -77,6 +85,52 @@ public class GenCs extends Generator {
         CachedFiles.keepMetaAndDeleteOtherFiles(dstDir);
     }
 
+    /**
+     * listRef在被引用表Initialize时按引用的列分组，_resolve直接取组，不再每行遍历被引用表。表上声明的index也用同样的分组
+     */
+    private void collectListRefGroups() {
+        listRefGroups.clear();
+        for (TTable ttable : value.getTDb().getTTables()) {
+            for (Map<String, Type> index : ttable.getIndexes()) {
+                addGroup(ttable, index.keySet().toArray(new String[0]));
+            }
+        }
+        List<TBean> tbeans = new ArrayList<>();
+        for (TBean tbean : value.getTDb().getTBeans()) {
+            tbeans.add(tbean);
+            tbeans.addAll(tbean.getChildDynamicBeans());
+        }
+        for (TTable ttable : value.getTDb().getTTables()) {
+            tbeans.add(ttable.getTBean());
+        }
+
+        for (TBean tbean : tbeans) {
+            for (TForeignKey l : tbean.getListRefs()) {
+                if (isGroupedListRef(tbean, l)) {
+                    addGroup(l.refTable, l.foreignKeyDefine.ref.cols);
+                }
+            }
+        }
+    }
+
+    /**
+     * 列是list或map的listRef不分组，还是遍历被引用表
+     */
+    private boolean isGroupedListRef(TBean tbean, TForeignKey l) {
+        if (l.foreignKeyDefine.keys.length == 1) {
+            Type col = tbean.getColumnMap().get(l.foreignKeyDefine.keys[0]);
+            return !(col instanceof TList) && !(col instanceof TMap);
+        }
+        return true;
+    }
+
+    private void addGroup(TTable ttable, String[] cols) {
+        List<String[]> groups = listRefGroups.computeIfAbsent(ttable, t -> new ArrayList<>());
+        if (groups.stream().noneMatch(g -> Arrays.equals(g, cols))) {
+            groups.add(cols);
+        }
+    }
+
     private static class Name {
         final String pkg;
         final String className;
@@ -245,11 +299,47 @@ public class GenCs extends Generator {
 
         String csv = "\"" + tbean.getBeanDefine().name + "\"";
         if (ttable != null) {
+            List<String[]> groups = listRefGroups.getOrDefault(ttable, Collections.emptyList());
             generateMapGetBy(ttable.getPrimaryKey(), name, ps, true);
             for (Map<String, Type> uniqueKey : ttable.getUniqueKeys()) {
                 generateMapGetBy(uniqueKey, name, ps, false);
             }
 
+            //listRef用的分组
+            for (String[] cols : groups) {
+                ps.println2("static " + groupType(tbean, cols, name) + " " + groupMapName(cols) + " = null;");
+                ps.println();
+                ps.println2("internal static List<" + name.className + "> _groupBy" + Stream.of(cols).map(Generator::upper1).reduce("", (a, b) -> a + b)
+                        + "(" + Stream.of(cols).map(c -> type(tbean.getColumnMap().get(c)) + " " + lower1(c)).collect(Collectors.joining(", ")) + ")");
+                ps.println2("{");
+                ps.println3("List<" + name.className + "> v;");
+                ps.println3("return " + groupMapName(cols) + ".TryGetValue(" + groupKey(cols, "") + ", out v) ? new List<" + name.className + ">(v) : new List<" + name.className + ">();");
+                ps.println2("}");
+                ps.println();
+            }
+
+            //index
+            for (Map<String, Type> index : ttable.getIndexes()) {
+                String[] cols = index.keySet().toArray(new String[0]);
+                ps.println2("public static IReadOnlyList<" + name.className + "> GetAllBy" + Stream.of(cols).map(Generator::upper1).reduce("", (a, b) -> a + b) + "(" + formalParams(index) + ")");
+                ps.println2("{");
+                ps.println3("List<" + name.className + "> v;");
+                ps.println3("return " + groupMapName(cols) + ".TryGetValue(" + groupKey(cols, "") + ", out v) ? v.AsReadOnly() : new List<" + name.className + ">().AsReadOnly();");
+                ps.println2("}");
+                ps.println();
+            }
+
+            //rangeIndex
+            Set<String> boundTypes = new LinkedHashSet<>();
+            for (Type column : ttable.getRangeIndexes()) {
+                generateRangeIndex(column, name, ps);
+                boundTypes.add(type(column));
+            }
+            for (String t : boundTypes) {
+                generateBound(t, "_lowerBound", "<", ps);
+                generateBound(t, "_upperBound", "<=", ps);
+            }
+
             //static all
             ps.println2("public static List<" + name.className + "> All()");
             ps.println2("{");
@@ -277,10 +367,23 @@ public class GenCs extends Generator {
             for (Map<String, Type> uniqueKey : ttable.getUniqueKeys()) {
                 ps.println3(uniqueKeyMapName(uniqueKey) + " = new Config.KeyedList<" + keyClassName(uniqueKey) + ", " + name.className + ">();");
             }
+            for (String[] cols : groups) {
+                ps.println3(groupMapName(cols) + " = new " + groupType(tbean, cols, name) + "();");
+            }
 
             ps.println3("for (var c = os.ReadInt32(); c > 0; c--) {");
             ps.println4("var self = _create(os);");
             generateAllMapPut(ttable, ps);
+            for (String[] cols : groups) {
+                String rows = groupMapName(cols) + "Rows";
+                ps.println4("List<" + name.className + "> " + rows + ";");
+                ps.println4("if (!" + groupMapName(cols) + ".TryGetValue(" + groupKey(cols, "self.") + ", out " + rows + "))");
+                ps.println4("{");
+                ps.println5(rows + " = new List<" + name.className + ">();");
+                ps.println5(groupMapName(cols) + ".Add(" + groupKey(cols, "self.") + ", " + rows + ");");
+                ps.println4("}");
+                ps.println4(rows + ".Add(self);");
+            }
 
             if (ttable.getTableDefine().isEnum()) {
                 String ef = upper1(ttable.getTableDefine().enumStr);
@@ -308,6 +411,9 @@ public class GenCs extends Generator {
                     ps.println4("errors.EnumNull(" + csv + ", \"" + e + "\");");
                 });
             }
+            for (Type column : ttable.getRangeIndexes()) {
+                generateRangeIndexBuild(column, name, ps);
+            }
             ps.println2("}");
             ps.println();
 
@@ -331,6 +437,9 @@ public class GenCs extends Generator {
                 ps.println3("self." + upper1(n) + " = new " + type(t) + "();");
                 ps.println3("for (var c = os.ReadInt32(); c > 0; c--)");
                 ps.println4("self." + upper1(n) + ".Add(" + _create(((TList) t).value) + ");");
+                if (isInterned(t)) {
+                    ps.println3("self." + upper1(n) + " = os.Intern(\"" + type(t) + "\", self." + upper1(n) + ");");
+                }
             } else if (t instanceof TMap) {
                 ps.println3("self." + upper1(n) + " = new " + type(t) + "();");
                 ps.println3("for (var c = os.ReadInt32(); c > 0; c--)");
@@ -425,18 +534,23 @@ public class GenCs extends Generator {
             });
 
             tbean.getListRefs().forEach(l -> {
-                ps.println3(refName(l) + " = new List<" + fullName(l.refTable) + ">();");
-                ps.println3("foreach (var v in " + fullName(l.refTable) + ".All())");
-                ps.println3("{");
-                List<String> eqs = new ArrayList<>();
-                for (int i = 0; i < l.foreignKeyDefine.keys.length; i++) {
-                    String k = l.foreignKeyDefine.keys[i];
-                    String rk = l.foreignKeyDefine.ref.cols[i];
-                    eqs.add("v." + upper1(rk) + ".Equals(" + upper1(k) + ")");
+                if (isGroupedListRef(tbean, l)) {
+                    String groupBy = "_groupBy" + Stream.of(l.foreignKeyDefine.ref.cols).map(Generator::upper1).reduce("", (a, b) -> a + b);
+                    ps.println3(refName(l) + " = " + fullName(l.refTable) + "." + groupBy + "(" + actualParams(l.foreignKeyDefine.keys) + ");");
+                } else {
+                    ps.println3(refName(l) + " = new List<" + fullName(l.refTable) + ">();");
+                    ps.println3("foreach (var v in " + fullName(l.refTable) + ".All())");
+                    ps.println3("{");
+                    List<String> eqs = new ArrayList<>();
+                    for (int i = 0; i < l.foreignKeyDefine.keys.length; i++) {
+                        String k = l.foreignKeyDefine.keys[i];
+                        String rk = l.foreignKeyDefine.ref.cols[i];
+                        eqs.add("v." + upper1(rk) + ".Equals(" + upper1(k) + ")");
+                    }
+                    ps.println3("if (" + String.join(" && ", eqs) + ")");
+                    ps.println4(refName(l) + ".Add(v);");
+                    ps.println3("}");
                 }
-                ps.println3("if (" + String.join(" && ", eqs) + ")");
-                ps.println4(refName(l) + ".Add(v);");
-                ps.println3("}");
             });
 
             ps.println("	    }");
@@ -513,6 +627,94 @@ public class GenCs extends Generator {
         }
     }
 
+    private void generateRangeIndex(Type column, Name name, CachedIndentPrinter ps) {
+        String keys = lower1(column.name) + "RangeKeys";
+        String rows = lower1(column.name) + "RangeRows";
+        String t = type(column);
+        String col = upper1(column.name);
+        String param = lower1(column.name);
+        ps.println2("static " + t + "[] " + keys + " = null;");
+        ps.println2("static List<" + name.className + "> " + rows + " = null;");
+        ps.println();
+
+        ps.println2("public static " + name.className + " FloorBy" + col + "(" + t + " " + param + ")");
+        ps.println2("{");
+        ps.println3("var i = _upperBound(" + keys + ", " + param + ") - 1;");
+        ps.println3("return i >= 0 ? " + rows + "[i] : null;");
+        ps.println2("}");
+        ps.println();
+
+        ps.println2("public static " + name.className + " CeilingBy" + col + "(" + t + " " + param + ")");
+        ps.println2("{");
+        ps.println3("var i = _lowerBound(" + keys + ", " + param + ");");
+        ps.println3("return i < " + keys + ".Length ? " + rows + "[i] : null;");
+        ps.println2("}");
+        ps.println();
+
+        ps.println2("public static List<" + name.className + "> RangeBy" + col + "(" + t + " from, " + t + " to)");
+        ps.println2("{");
+        ps.println3("var lo = _lowerBound(" + keys + ", from);");
+        ps.println3("var hi = _upperBound(" + keys + ", to);");
+        ps.println3("return lo < hi ? " + rows + ".GetRange(lo, hi - lo) : new List<" + name.className + ">();");
+        ps.println2("}");
+        ps.println();
+    }
+
+    private void generateBound(String t, String methodName, String op, CachedIndentPrinter ps) {
+        ps.println2("static int " + methodName + "(" + t + "[] keys, " + t + " key)");
+        ps.println2("{");
+        ps.println3("int lo = 0, hi = keys.Length;");
+        ps.println3("while (lo < hi)");
+        ps.println3("{");
+        ps.println4("var mid = (lo + hi) / 2;");
+        ps.println4("if (keys[mid] " + op + " key)");
+        ps.println5("lo = mid + 1;");
+        ps.println4("else");
+        ps.println5("hi = mid;");
+        ps.println3("}");
+        ps.println3("return lo;");
+        ps.println2("}");
+        ps.println();
+    }
+
+    /**
+     * 按列值稳定排序，值相同的保持原来的顺序
+     */
+    private void generateRangeIndexBuild(Type column, Name name, CachedIndentPrinter ps) {
+        String keys = lower1(column.name) + "RangeKeys";
+        String rows = lower1(column.name) + "RangeRows";
+        String order = lower1(column.name) + "RangeOrder";
+        String col = upper1(column.name);
+        ps.println3("var " + order + " = new int[all.OrderedValues.Count];");
+        ps.println3("for (var i = 0; i < " + order + ".Length; i++)");
+        ps.println4(order + "[i] = i;");
+        ps.println3("Array.Sort(" + order + ", (a, b) => { var r = all.OrderedValues[a]." + col + ".CompareTo(all.OrderedValues[b]." + col + "); return r != 0 ? r : a.CompareTo(b); });");
+        ps.println3(keys + " = new " + type(column) + "[" + order + ".Length];");
+        ps.println3(rows + " = new List<" + name.className + ">(" + order + ".Length);");
+        ps.println3("for (var i = 0; i < " + order + ".Length; i++)");
+        ps.println3("{");
+        ps.println4(keys + "[i] = all.OrderedValues[" + order + "[i]]." + col + ";");
+        ps.println4(rows + ".Add(all.OrderedValues[" + order + "[i]]);");
+        ps.println3("}");
+    }
+
+    private String groupMapName(String[] cols) {
+        return lower1(Stream.of(cols).map(Generator::upper1).reduce("", (a, b) -> a + b) + "Group");
+    }
+
+    private String groupType(TBean tbean, String[] cols, Name name) {
+        String key = type(tbean.getColumnMap().get(cols[0]));
+        if (cols.length > 1) {
+            key = "Tuple<" + Stream.of(cols).map(c -> type(tbean.getColumnMap().get(c))).collect(Collectors.joining(", ")) + ">";
+        }
+        return "Dictionary<" + key + ", List<" + name.className + ">>";
+    }
+
+    private String groupKey(String[] cols, String pre) {
+        String p = Stream.of(cols).map(c -> pre.isEmpty() ? lower1(c) : pre + upper1(c)).collect(Collectors.joining(", "));
+        return cols.length > 1 ? "Tuple.Create(" + p + ")" : p;
+    }
+
     private String uniqueKeyGetByName(Map<String, Type> keys) {
         return "GetBy" + keys.keySet().stream().map(Generator::upper1).reduce("", (a, b) -> a + b);
     }
@@ -695,16 +897,28 @@ public class GenCs extends Generator {
 
             @Override
             public String visit(TBean type) {
-                return fullName(type) + "._create(os)";
+                return internCreate(type);
             }
 
             @Override
             public String visit(TBeanRef type) {
-                return fullName(type.tBean) + "._create(os)";
+                return internCreate(type.tBean);
             }
         });
     }
 
+    private String internCreate(TBean tbean) {
+        String create = fullName(tbean) + "._create(os)";
+        return isInterned(tbean) ? "os.Intern(\"" + fullName(tbean) + "\", " + create + ")" : create;
+    }
+
+    /**
+     * 有引用的bean在_resolve里会改自己，不能共用
+     */
+    private boolean isInterned(Type t) {
+        return intern && !t.hasRef();
+    }
+
     private void copyFile(String file) throws IOException {
         try (InputStream is = getClass().getResourceAsStream("/support/" + file);
              BufferedReader br = new BufferedReader(new InputStreamReader(is != null ? is : new FileInputStream("src/support/" + file), "GBK"));
@@ -728,9 +942,18 @@ public class GenCs extends Generator {
             ps.println1("public static class CSVProcessor");
             ps.println1("{");
             ps.println2("public static readonly LoadErrors Errors = new LoadErrors();");
+            if (intern) {
+                ps.println2("// 最近一次Process用的，每次Process新建，不留上次的对象");
+                ps.println2("public static Config.Interner Interner { get; private set; }");
+            }
             ps.println();
             ps.println2("public static void Process(Config.Stream os)");
             ps.println2("{");
+            if (intern) {
+                ps.println3("if (os.Interner == null)");
+                ps.println4("os.Interner = new Config.Interner();");
+                ps.println3("Interner = os.Interner;");
+            }
             ps.println3("var configNulls = new List<string>");
             ps.println3("{");
             for (TTable cfg : value.getTDb().getTTables()) {
@@ -0,0 +1,114 @@
+package configgen.genjava;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 比较DataInputStream和ByteBuffer两种ConfigInput读java data的耗时，
+ * 按schema读出所有表的所有值，跟生成的_create读的顺序一样，只是不构造对象
+ */
+public final class BinaryBenchmark {
+
+    private interface InputFactory {
+        ConfigInput create() throws IOException;
+    }
+
+    public static void run(String javaDataFile, int rounds) throws IOException {
+        Path path = Paths.get(javaDataFile);
+        byte[] bytes = Files.readAllBytes(path);
+        System.out.printf("%s: %d bytes%n", javaDataFile, bytes.length);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+
+        for (int r = 1; r <= rounds; r++) {
+            long stream = time(() -> new ConfigInput(new DataInputStream(new ByteArrayInputStream(bytes))));
+            long heap = time(() -> new ByteBufferConfigInput(ByteBuffer.wrap(bytes)));
+            long off = time(() -> new ByteBufferConfigInput(direct.duplicate()));
+            long mapped = time(() -> ByteBufferConfigInput.map(path));
+            System.out.printf("round %d: stream %.1fms, heap buffer %.1fms, direct buffer %.1fms, mapped %.1fms%n",
+                    r, stream / 1e6, heap / 1e6, off / 1e6, mapped / 1e6);
+        }
+    }
+
+    private static long time(InputFactory factory) throws IOException {
+        long start = System.nanoTime();
+        long sum;
+        try (ConfigInput input = factory.create()) {
+            sum = readAll(input);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sum == 42) { // 不让jit把读的值优化掉
+            System.out.print("");
+        }
+        return elapsed;
+    }
+
+    private static long readAll(ConfigInput input) {
+        SchemaInterface root = (SchemaInterface) Schema.create(input);
+        long sum = 0;
+        for (int c = input.readInt(); c > 0; c--) {
+            String tableName = input.readStr();
+            int tableSize = input.readInt();
+            Schema schema = root.implementations.get(tableName);
+            if (schema instanceof SchemaEnum) {
+                schema = root.implementations.get(tableName + "_Detail");
+            }
+            if (!(schema instanceof SchemaBean)) {
+                input.skipBytes(tableSize);
+                continue;
+            }
+            for (int row = input.readInt(); row > 0; row--) {
+                sum += read(schema, input, root);
+            }
+        }
+        return sum;
+    }
+
+    private static long read(Schema schema, ConfigInput input, SchemaInterface root) {
+        if (schema instanceof SchemaPrimitive) {
+            switch ((SchemaPrimitive) schema) {
+                case SBool:
+                    return input.readBool() ? 1 : 0;
+                case SInt:
+                    return input.readInt();
+                case SLong:
+                    return input.readLong();
+                case SFloat:
+                    return (long) input.readFloat();
+                case SStr:
+                    return input.readStr().length();
+            }
+        } else if (schema instanceof SchemaRef) {
+            return read(root.implementations.get(((SchemaRef) schema).type), input, root);
+        } else if (schema instanceof SchemaList) {
+            long sum = 0;
+            for (int c = input.readInt(); c > 0; c--) {
+                sum += read(((SchemaList) schema).ele, input, root);
+            }
+            return sum;
+        } else if (schema instanceof SchemaMap) {
+            long sum = 0;
+            for (int c = input.readInt(); c > 0; c--) {
+                sum += read(((SchemaMap) schema).key, input, root);
+                sum += read(((SchemaMap) schema).value, input, root);
+            }
+            return sum;
+        } else if (schema instanceof SchemaBean) {
+            long sum = 0;
+            for (SchemaBean.Column column : ((SchemaBean) schema).columns) {
+                sum += read(column.schema, input, root);
+            }
+            return sum;
+        } else if (schema instanceof SchemaInterface) {
+            String type = input.readStr();
+            return read(((SchemaInterface) schema).implementations.get(type), input, root);
+        }
+        return 0;
+    }
+}
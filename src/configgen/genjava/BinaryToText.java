@@ -1,9 +1,7 @@
 package configgen.genjava;
 
-import java.io.BufferedInputStream;
-import java.io.DataInputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
 
 public class BinaryToText {
@@ -11,9 +9,20 @@ public class BinaryToText {
 
     public static void parse(String javaDataFile, String match) throws IOException {
 
-        try (ConfigInput input = new ConfigInput(new DataInputStream(new BufferedInputStream(new FileInputStream(javaDataFile))))) {
+        try (ByteBufferConfigInput input = ByteBufferConfigInput.map(Paths.get(javaDataFile))) {
             rootSchema = (SchemaInterface) Schema.create(input);
 
+            TableDirectory directory = input.readDirectory();
+            if (directory != null) {
+                for (TableDirectory.Entry entry : directory.getEntries()) {
+                    if (match == null || entry.name.startsWith(match)) {
+                        printTableInfo(entry.name, entry.length, input.table(entry));
+                        println("");
+                    }
+                }
+                return;
+            }
+
             int tableCount = input.readInt();
             for (int i = 0; i < tableCount; i++) {
                 String tableName = input.readStr();
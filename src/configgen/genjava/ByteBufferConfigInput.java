@@ -0,0 +1,218 @@
+package configgen.genjava;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 从ByteBuffer读，可以随机访问。整个config.data映射进来后，
+ * 用Schema.create读完schema，再readDirectory拿到表目录，就可以只读要的那几个表：
+ * <pre>
+ * ByteBufferConfigInput input = ByteBufferConfigInput.map(path);
+ * Schema dataSchema = Schema.create(input);
+ * TableDirectory dir = input.readDirectory();
+ * Loot._createAll(mgr, input.table(dir.get("loot")));
+ * </pre>
+ */
+public class ByteBufferConfigInput extends ConfigInput {
+    private final ByteBuffer buffer;
+    private byte[] scratch = new byte[256];
+
+    /**
+     * buffer的当前位置作为文件开头
+     */
+    public ByteBufferConfigInput(ByteBuffer buffer) {
+        super(null);
+        this.buffer = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    ByteBufferConfigInput(ByteBuffer buffer, ConfigInput sameFormatAs) {
+        this(buffer);
+        format = sameFormatAs.format;
+        varint = sameFormatAs.varint;
+        stringPool = sameFormatAs.stringPool;
+        interner = sameFormatAs.interner;
+    }
+
+    public static ByteBufferConfigInput map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new ByteBufferConfigInput(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int position() {
+        return buffer.position();
+    }
+
+    public void position(int position) {
+        buffer.position(position);
+    }
+
+    public int remaining() {
+        return buffer.remaining();
+    }
+
+    /**
+     * 同格式，共用字符串池的一段
+     */
+    public ByteBufferConfigInput slice(int offset, int length) {
+        ByteBuffer b = buffer.duplicate();
+        b.clear();
+        b.position(offset);
+        b.limit(offset + length);
+        return new ByteBufferConfigInput(b, this);
+    }
+
+    /**
+     * 要在Schema.create之后调用，文件没写目录返回null
+     */
+    public TableDirectory readDirectory() {
+        if ((format & Schema.FORMAT_DIRECTORY) == 0) {
+            return null;
+        }
+        int end = buffer.limit();
+        if (end < 8 || buffer.getInt(end - 4) != Schema.FORMAT) {
+            throw new ConfigErr("table directory footer not found");
+        }
+        int offset = buffer.getInt(end - 8);
+        return new TableDirectory(slice(offset, end - 8 - offset));
+    }
+
+    /**
+     * 表的数据，校验crc32，可以直接传给生成的_createAll
+     */
+    public ByteBufferConfigInput table(TableDirectory.Entry entry) {
+        ByteBufferConfigInput in = slice(entry.offset, entry.length);
+        if (TableDirectory.checksum(in.buffer) != entry.checksum) {
+            throw new ConfigErr("table " + entry.name + " checksum mismatch");
+        }
+        return in;
+    }
+
+    @Override
+    public boolean readBool() {
+        return buffer.get() != 0;
+    }
+
+    @Override
+    public int readInt() {
+        if (varint) {
+            int v = (int) readVarLong(35);
+            return (v >>> 1) ^ -(v & 1);
+        }
+        return buffer.getInt();
+    }
+
+    @Override
+    public long readLong() {
+        if (varint) {
+            long v = readVarLong(70);
+            return (v >>> 1) ^ -(v & 1);
+        }
+        return buffer.getLong();
+    }
+
+    /**
+     * 用绝对位置读，最后再设一次position
+     */
+    private long readVarLong(int maxBits) {
+        int pos = buffer.position();
+        long v = 0;
+        for (int shift = 0; shift < maxBits; shift += 7) {
+            int b = buffer.get(pos++);
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                buffer.position(pos);
+                return v;
+            }
+        }
+        throw new ConfigErr("malformed varint");
+    }
+
+    @Override
+    public float readFloat() {
+        return buffer.getFloat();
+    }
+
+    @Override
+    public String readStr() {
+        if (stringPool != null) {
+            return stringPool[readInt()];
+        }
+        return readUTF();
+    }
+
+    /**
+     * 同DataInputStream.readUTF，2字节长度加modified UTF-8。
+     * 全是ASCII时直接按ISO_8859_1构造String，jdk9以后是一次数组拷贝
+     */
+    @Override
+    String readUTF() {
+        int len = buffer.getShort() & 0xFFFF;
+        byte[] src;
+        int off;
+        if (buffer.hasArray()) {
+            src = buffer.array();
+            off = buffer.arrayOffset() + buffer.position();
+            buffer.position(buffer.position() + len);
+        } else {
+            if (scratch.length < len) {
+                scratch = new byte[Math.max(len, scratch.length * 2)];
+            }
+            src = scratch;
+            off = 0;
+            buffer.get(src, 0, len);
+        }
+
+        int end = off + len;
+        int i = off;
+        while (i < end && src[i] >= 0) {
+            i++;
+        }
+        if (i == end) {
+            return new String(src, off, len, StandardCharsets.ISO_8859_1);
+        }
+
+        char[] chars = new char[len];
+        int n = 0;
+        for (int j = off; j < i; j++) {
+            chars[n++] = (char) src[j];
+        }
+        while (i < end) {
+            int c = src[i++] & 0xFF;
+            if (c < 0x80) {
+                chars[n++] = (char) c;
+            } else if ((c & 0xE0) == 0xC0 && i < end) {
+                chars[n++] = (char) (((c & 0x1F) << 6) | (src[i++] & 0x3F));
+            } else if ((c & 0xF0) == 0xE0 && i + 1 < end) {
+                chars[n++] = (char) (((c & 0x0F) << 12) | ((src[i] & 0x3F) << 6) | (src[i + 1] & 0x3F));
+                i += 2;
+            } else {
+                throw new ConfigErr("malformed utf");
+            }
+        }
+        return new String(chars, 0, n);
+    }
+
+    @Override
+    public ConfigInput readSlice(int size) {
+        ByteBufferConfigInput in = slice(buffer.position(), size);
+        buffer.position(buffer.position() + size);
+        return in;
+    }
+
+    @Override
+    public int skipBytes(int n) {
+        int skip = Math.min(n, buffer.remaining());
+        buffer.position(buffer.position() + skip);
+        return skip;
+    }
+
+    @Override
+    public void close() {
+    }
+}
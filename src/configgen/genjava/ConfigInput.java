@@ -3,14 +3,74 @@ package configgen.genjava;
 import java.io.Closeable;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class ConfigInput implements Closeable {
     private final DataInputStream input;
+    int format;
+    boolean varint;
+    String[] stringPool;
+    Interner interner;
 
     public ConfigInput(DataInputStream input) {
         this.input = input;
     }
 
+    public int getFormat() {
+        return format;
+    }
+
+    public Interner getInterner() {
+        return interner;
+    }
+
+    /**
+     * 要在readSlice，table之前设，切出来的ConfigInput共用同一个
+     */
+    public void setInterner(Interner interner) {
+        this.interner = interner;
+    }
+
+    /**
+     * 没设interner时原样返回
+     */
+    public <T> T intern(String type, T value) {
+        return interner != null ? interner.intern(type, value) : value;
+    }
+
+    boolean isVarint() {
+        return varint;
+    }
+
+    /**
+     * Schema.create读到文件头时调用，之后int，long按varint读，字符串从池里取，重复的串是同一个对象
+     */
+    void startFormat(int format) {
+        if ((format & ~(Schema.FORMAT_VARINT | Schema.FORMAT_STRING_POOL | Schema.FORMAT_DIRECTORY)) != 0) {
+            throw new ConfigErr("format " + format + " not supported");
+        }
+        this.format = format;
+        varint = (format & Schema.FORMAT_VARINT) != 0;
+        if ((format & Schema.FORMAT_STRING_POOL) != 0) {
+            String[] pool = new String[readInt()];
+            for (int i = 0; i < pool.length; i++) {
+                pool[i] = readUTF();
+            }
+            stringPool = pool;
+        }
+    }
+
+    /**
+     * 不经过字符串池，读writeUTF写的串
+     */
+    String readUTF() {
+        try {
+            return input.readUTF();
+        } catch (IOException e) {
+            throw new ConfigErr(e);
+        }
+    }
+
     public boolean readBool() {
         try {
             return input.readBoolean();
@@ -21,6 +81,10 @@ public class ConfigInput implements Closeable {
 
     public int readInt() {
         try {
+            if (isVarint()) {
+                int v = (int) readVarLong(35);
+                return (v >>> 1) ^ -(v & 1);
+            }
             return input.readInt();
         } catch (IOException e) {
             throw new ConfigErr(e);
@@ -29,12 +93,28 @@ public class ConfigInput implements Closeable {
 
     public long readLong() {
         try {
+            if (isVarint()) {
+                long v = readVarLong(70);
+                return (v >>> 1) ^ -(v & 1);
+            }
             return input.readLong();
         } catch (IOException e) {
             throw new ConfigErr(e);
         }
     }
 
+    private long readVarLong(int maxBits) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < maxBits; shift += 7) {
+            int b = input.readByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return v;
+            }
+        }
+        throw new ConfigErr("malformed varint");
+    }
+
     public float readFloat() {
         try {
             return input.readFloat();
@@ -44,11 +124,23 @@ public class ConfigInput implements Closeable {
     }
 
     public String readStr() {
+        if (stringPool != null) {
+            return stringPool[readInt()];
+        }
+        return readUTF();
+    }
+
+    /**
+     * 读出接下来的size个字节，作为同格式，共用字符串池的另一个ConfigInput，可以拿到别的线程去解析
+     */
+    public ConfigInput readSlice(int size) {
+        byte[] bytes = new byte[size];
         try {
-            return input.readUTF();
+            input.readFully(bytes);
         } catch (IOException e) {
             throw new ConfigErr(e);
         }
+        return new ByteBufferConfigInput(ByteBuffer.wrap(bytes), this);
     }
 
     public int skipBytes(int n) {
@@ -0,0 +1,83 @@
+package configgen.genjava;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigInputTest {
+
+    private static final int[] INTS = {0, 1, -1, 63, -64, 64, 127, 128, 300, -300, Integer.MAX_VALUE, Integer.MIN_VALUE};
+    private static final long[] LONGS = {0, 1, -1, 1L << 35, -(1L << 35), Long.MAX_VALUE, Long.MIN_VALUE};
+
+    private static byte[] write(int format) {
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        ConfigOutput body = new ConfigOutput(new DataOutputStream(bodyBytes), format);
+        SchemaPrimitive.SInt.write(body);
+        for (int v : INTS) {
+            body.writeInt(v);
+        }
+        for (long v : LONGS) {
+            body.writeLong(v);
+        }
+        body.writeStr("icon/sword");
+        body.writeStr("");
+        body.writeStr("icon/sword");
+        body.writeStr("中文\u0000é");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ConfigOutput output = new ConfigOutput(new DataOutputStream(bytes), body);
+        output.writeHeader();
+        output.write(bodyBytes.toByteArray(), 0, bodyBytes.size());
+        return bytes.toByteArray();
+    }
+
+    private static void read(byte[] data, int format) {
+        ConfigInput input = read(new ConfigInput(new DataInputStream(new ByteArrayInputStream(data))), format);
+        ConfigInput bufferInput = read(new ByteBufferConfigInput(ByteBuffer.wrap(data)), format);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(input.readStr(), bufferInput.readStr());
+        }
+    }
+
+    private static ConfigInput read(ConfigInput input, int format) {
+        assertEquals(SchemaPrimitive.SInt, Schema.create(input));
+        assertEquals(format, input.getFormat());
+        for (int v : INTS) {
+            assertEquals(v, input.readInt());
+        }
+        for (long v : LONGS) {
+            assertEquals(v, input.readLong());
+        }
+        return input;
+    }
+
+    @Test
+    public void readAllFormats() {
+        byte[] fixed = write(0);
+        byte[] varint = write(Schema.FORMAT_VARINT);
+        read(fixed, 0);
+        read(varint, Schema.FORMAT_VARINT);
+        read(write(Schema.FORMAT_STRING_POOL), Schema.FORMAT_STRING_POOL);
+        assertTrue(varint.length < fixed.length);
+    }
+
+    @Test
+    public void stringPoolSharesStrings() {
+        int format = Schema.FORMAT_VARINT | Schema.FORMAT_STRING_POOL;
+        byte[] data = write(format);
+        read(data, format);
+        ConfigInput input = read(new ByteBufferConfigInput(ByteBuffer.wrap(data)), format);
+        String a = input.readStr();
+        assertEquals("", input.readStr());
+        assertEquals("icon/sword", a);
+        assertSame(a, input.readStr());
+    }
+}
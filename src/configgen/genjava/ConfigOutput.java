@@ -3,12 +3,105 @@ package configgen.genjava;
 import java.io.Closeable;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class ConfigOutput implements Closeable {
     private final DataOutputStream output;
+    private final int format;
+    private final Map<String, Integer> stringPool;
+    private final boolean stringPoolFrozen;
 
     public ConfigOutput(DataOutputStream output) {
+        this(output, 0);
+    }
+
+    /**
+     * @param format Schema.FORMAT_VARINT：int，long用zigzag+LEB128 varint写，小的id，数量，长度只要1，2个字节；
+     *               Schema.FORMAT_STRING_POOL：字符串只写在池里一次，其他地方写池里的序号
+     */
+    public ConfigOutput(DataOutputStream output, int format) {
+        this.output = output;
+        this.format = format;
+        this.stringPool = (format & Schema.FORMAT_STRING_POOL) != 0 ? new LinkedHashMap<>() : null;
+        this.stringPoolFrozen = false;
+    }
+
+    /**
+     * 跟other一样的格式，共用一个字符串池
+     */
+    public ConfigOutput(DataOutputStream output, ConfigOutput other) {
         this.output = output;
+        this.format = other.format;
+        this.stringPool = other.stringPool;
+        this.stringPoolFrozen = other.stringPoolFrozen;
+    }
+
+    /**
+     * 跟已读的input一样的格式和字符串池，用来按旧文件的编码再写一遍比较字节。
+     * 池不再增加，池里没有的串写序号-1，跟旧文件肯定不一样
+     */
+    ConfigOutput(DataOutputStream output, ConfigInput sameFormatAs) {
+        this.output = output;
+        this.format = sameFormatAs.format & ~Schema.FORMAT_DIRECTORY;
+        if (sameFormatAs.stringPool != null) {
+            stringPool = new HashMap<>();
+            for (int i = 0; i < sameFormatAs.stringPool.length; i++) {
+                stringPool.putIfAbsent(sameFormatAs.stringPool[i], i);
+            }
+        } else {
+            stringPool = null;
+        }
+        this.stringPoolFrozen = true;
+    }
+
+    public int getFormat() {
+        return format;
+    }
+
+    private boolean isVarint() {
+        return (format & Schema.FORMAT_VARINT) != 0;
+    }
+
+    /**
+     * 非默认格式在schema前写文件头，固定4字节的Schema.FORMAT和format，读的时候Schema.create据此切换。
+     * 有字符串池的话接着写池，所以要等用这个池的其他ConfigOutput都写完了再调用
+     */
+    public void writeHeader() {
+        if (format == 0) {
+            return;
+        }
+        try {
+            output.writeInt(Schema.FORMAT);
+            output.writeInt(format);
+            if (stringPool != null) {
+                writeInt(stringPool.size());
+                for (String s : stringPool.keySet()) {
+                    output.writeUTF(s);
+                }
+            }
+        } catch (IOException e) {
+            throw new ConfigErr(e);
+        }
+    }
+
+    /**
+     * 已写的字节数
+     */
+    public int size() {
+        return output.size();
+    }
+
+    /**
+     * 不管格式，固定4字节写，用于文件尾这种要按位置读的地方
+     */
+    public void writeFixedInt(int v) {
+        try {
+            output.writeInt(v);
+        } catch (IOException e) {
+            throw new ConfigErr(e);
+        }
     }
 
     public void writeBool(boolean v) {
@@ -29,7 +122,11 @@ public class ConfigOutput implements Closeable {
 
     public void writeInt(int v) {
         try {
-            output.writeInt(v);
+            if (isVarint()) {
+                writeVarLong(((v << 1) ^ (v >> 31)) & 0xFFFFFFFFL);
+            } else {
+                output.writeInt(v);
+            }
         } catch (IOException e) {
             throw new ConfigErr(e);
         }
@@ -37,12 +134,24 @@ public class ConfigOutput implements Closeable {
 
     public void writeLong(long v) {
         try {
-            output.writeLong(v);
+            if (isVarint()) {
+                writeVarLong((v << 1) ^ (v >> 63));
+            } else {
+                output.writeLong(v);
+            }
         } catch (IOException e) {
             throw new ConfigErr(e);
         }
     }
 
+    private void writeVarLong(long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            output.writeByte((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        output.writeByte((int) v);
+    }
+
     public void writeFloat(float v) {
         try {
             output.writeFloat(v);
@@ -52,6 +161,17 @@ public class ConfigOutput implements Closeable {
     }
 
     public void writeStr(String v) {
+        if (stringPool != null) {
+            Integer idx = stringPool.get(v);
+            if (idx == null && stringPoolFrozen) {
+                idx = -1;
+            } else if (idx == null) {
+                idx = stringPool.size();
+                stringPool.put(v, idx);
+            }
+            writeInt(idx);
+            return;
+        }
         try {
             output.writeUTF(v);
         } catch (IOException e) {
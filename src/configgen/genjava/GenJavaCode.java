@@ -15,6 +15,8 @@ import java.io.*;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -31,21 +33,29 @@ public class GenJavaCode extends Generator {
 
             @Override
             public String usage() {
-                return "dir:config,pkg:config,encoding:UTF-8    cooperate with -gen zip";
+                return "dir:config,pkg:config,encoding:UTF-8,lazy:false,primitiveList:false,intern:false    cooperate with -gen zip，lazy:true时表第一次访问才解析，primitiveList:true时list,int等生成int[]，intern:true时值相等的bean和list共用一个对象";
             }
         });
     }
 
     private File dstDir;
+    private final Map<TTable, List<String[]>> listRefGroups = new LinkedHashMap<>();
+    private final List<String> mgrFieldInits = new ArrayList<>();
     private final String dir;
     private final String pkg;
     private final String encoding;
+    private final boolean lazy;
+    private final boolean primitiveList;
+    private final boolean intern;
 
     private GenJavaCode(Parameter parameter) {
         super(parameter);
         dir = parameter.get("dir", "config");
         pkg = parameter.getNotEmpty("pkg", "config");
         encoding = parameter.get("encoding", "UTF-8");
+        lazy = Boolean.parseBoolean(parameter.get("lazy", "false"));
+        primitiveList = Boolean.parseBoolean(parameter.get("primitiveList", "false"));
+        intern = Boolean.parseBoolean(parameter.get("intern", "false"));
 
         parameter.end();
     }
@@ -54,7 +64,8 @@ public class GenJavaCode extends Generator {
     public void generate(Context ctx) throws IOException {
         VDb value = ctx.makeValue();
         dstDir = Paths.get(dir).resolve(pkg.replace('.', '/')).toFile();
-
+        collectListRefGroups(value);
+        mgrFieldInits.clear();
 
         for (TBean tbean : value.getTDb().getTBeans()) {
             generateBeanClass(tbean);
@@ -89,6 +100,12 @@ public class GenJavaCode extends Generator {
                 mgrPrint.println();
             }
 
+            generateMgrConstructor(mgrPrint);
+            if (lazy) {
+                mgrPrint.println();
+                generateLazyLoad(dataTables(value), mgrPrint);
+            }
+
             mgrPrint.println("}");
         }
 
@@ -98,6 +115,59 @@ public class GenJavaCode extends Generator {
         CachedFiles.deleteOtherFiles(dstDir);
     }
 
+    /**
+     * listRef不再每行扫描整个被引用表，而是读入被引用表时按引用的列分组，resolve时直接取组。
+     * 表上声明的index也用同样的分组
+     */
+    private void collectListRefGroups(VDb vdb) {
+        listRefGroups.clear();
+        for (TTable ttable : vdb.getTDb().getTTables()) {
+            for (Map<String, Type> index : ttable.getIndexes()) {
+                addGroup(ttable, index.keySet().toArray(new String[0]));
+            }
+        }
+        List<TBean> tbeans = new ArrayList<>();
+        for (TBean tbean : vdb.getTDb().getTBeans()) {
+            tbeans.add(tbean);
+            tbeans.addAll(tbean.getChildDynamicBeans());
+        }
+        for (TTable ttable : vdb.getTDb().getTTables()) {
+            tbeans.add(ttable.getTBean());
+        }
+
+        for (TBean tbean : tbeans) {
+            for (TForeignKey l : tbean.getListRefs()) {
+                if (isGroupedListRef(tbean, l)) {
+                    addGroup(l.refTable, l.foreignKeyDefine.ref.cols);
+                }
+            }
+        }
+    }
+
+    private void addGroup(TTable ttable, String[] cols) {
+        List<String[]> groups = listRefGroups.computeIfAbsent(ttable, t -> new ArrayList<>());
+        if (groups.stream().noneMatch(g -> Arrays.equals(g, cols))) {
+            groups.add(cols);
+        }
+    }
+
+    private boolean isGroupedListRef(TBean tbean, TForeignKey l) {
+        if (l.foreignKeyDefine.keys.length == 1) {
+            Type col = tbean.getColumnMap().get(l.foreignKeyDefine.keys[0]);
+            return !(col instanceof TList) && !(col instanceof TMap);
+        }
+        return true;
+    }
+
+    private String groupMapName(TTable ttable, String[] cols) {
+        return new Name(ttable.getTBean()).containerPrefix + Stream.of(cols).map(Generator::upper1).reduce("", (a, b) -> a + b) + "Group";
+    }
+
+    private String groupKey(String[] cols, String pre) {
+        String p = Stream.of(cols).map(c -> pre + lower1(c)).collect(Collectors.joining(", "));
+        return cols.length > 1 ? "java.util.Arrays.asList(" + p + ")" : p;
+    }
+
     private class Name {
         final String pkg;
         final String className;
@@ -199,6 +269,10 @@ public class GenJavaCode extends Generator {
             ps.println("default void _resolve(%s.ConfigMgr mgr) {", pkg);
             ps.println("}");
             ps.println();
+            ps.println("default %s _copy() {", name.className);
+            ps.println1("return this;");
+            ps.println("}");
+            ps.println();
         }
 
         ps.println("static %s _create(configgen.genjava.ConfigInput input) {", name.className);
@@ -410,10 +484,18 @@ public class GenJavaCode extends Generator {
             String n = f.getKey();
             Type t = f.getValue();
             String selfN = "self." + lower1(n);
-            if (t instanceof TList) {
+            if (isPrimitiveArray(t)) {
+                ps.println2("%s = new %s[input.readInt()];", selfN, type(((TList) t).value));
+                ps.println2("for (int i = 0; i < %s.length; i++) {", selfN);
+                ps.println3("%s[i] = %s;", selfN, _create(((TList) t).value));
+                ps.println2("}");
+            } else if (t instanceof TList) {
                 ps.println2("for (int c = input.readInt(); c > 0; c--) {");
                 ps.println3("%s.add(%s);", selfN, _create(((TList) t).value));
                 ps.println2("}");
+                if (isInterned(t)) {
+                    ps.println2("%s = input.intern(\"%s\", %s);", selfN, type(t), selfN);
+                }
             } else if (t instanceof TMap) {
                 ps.println2("for (int c = input.readInt(); c > 0; c--) {");
                 ps.println3("%s.put(%s, %s);", selfN, _create(((TMap) t).key), _create(((TMap) t).value));
@@ -485,11 +567,16 @@ public class GenJavaCode extends Generator {
         //toString
         ps.println1("@Override");
         ps.println1("public String toString() {");
-        ps.println2("return \"(\" + " + tbean.getColumnMap().keySet().stream().map(Generator::lower1).collect(Collectors.joining(" + \",\" + ")) + " + \")\";");
+        ps.println2("return \"(\" + " + tbean.getColumnMap().entrySet().stream().map(e -> isPrimitiveArray(e.getValue()) ? "java.util.Arrays.toString(" + lower1(e.getKey()) + ")" : lower1(e.getKey())).collect(Collectors.joining(" + \",\" + ")) + " + \")\";");
         ps.println1("}");
         ps.println();
 
 
+        //_copy
+        if (tbean.hasRef()) {
+            generateCopy(tbean, name, ps);
+        }
+
         //_resolve
         if (tbean.hasRef()) {
             if (tbean.getBeanDefine().type == Bean.BeanType.ChildDynamicBean) {
@@ -501,7 +588,21 @@ public class GenJavaCode extends Generator {
                 String n = f.getKey();
                 Type t = f.getValue();
                 if (t.hasRef()) {
-                    if (t instanceof TList) {
+                    //引用的list，map每次resolve都重建，重复resolve不会加重
+                    if (t instanceof TList || t instanceof TMap) {
+                        for (SRef sr : t.getConstraint().references) {
+                            ps.println2(refName(sr) + (t instanceof TMap ? " = new java.util.LinkedHashMap<>();" : " = new java.util.ArrayList<>();"));
+                        }
+                    }
+                    if (isPrimitiveArray(t)) {
+                        ps.println2("for (" + type(((TList) t).value) + " e : " + lower1(n) + ") {");
+                        for (SRef sr : t.getConstraint().references) {
+                            ps.println3(fullName(sr.refTable) + " r = " + tableGet(sr.refTable, sr.refCols, "e"));
+                            ps.println3("java.util.Objects.requireNonNull(r);");
+                            ps.println3(refName(sr) + ".add(r);");
+                        }
+                        ps.println2("}");
+                    } else if (t instanceof TList) {
                         TList tt = (TList) t;
                         ps.println2(lower1(n) + ".forEach( e -> {");
                         if (tt.value instanceof TBeanRef && tt.value.hasRef()) {
@@ -558,30 +659,9 @@ public class GenJavaCode extends Generator {
             });
 
             tbean.getListRefs().forEach(l -> {
-                boolean gen = false;
-                if (l.foreignKeyDefine.keys.length == 1) {
-                    String k = l.foreignKeyDefine.keys[0];
-                    Type col = tbean.getColumnMap().get(k);
-                    if (col instanceof TList) {
-                        gen = true;
-                    } else if (col instanceof TMap) {
-                        //TODO
-                        gen = true;
-                    }
-                }
-
-                if (!gen) {
-                    Name refn = new Name(l.refTable.getTBean());
-                    ps.println2("mgr." + refn.containerPrefix + "All.values().forEach( v -> {");
-                    List<String> eqs = new ArrayList<>();
-                    for (int i = 0; i < l.foreignKeyDefine.keys.length; i++) {
-                        String k = l.foreignKeyDefine.keys[i];
-                        String rk = l.foreignKeyDefine.ref.cols[i];
-                        eqs.add(equal("v.get" + upper1(rk) + "()", lower1(k), tbean.getColumnMap().get(k)));
-                    }
-                    ps.println3("if (" + String.join(" && ", eqs) + ")");
-                    ps.println4(refName(l) + ".add(v);");
-                    ps.println2("});");
+                if (isGroupedListRef(tbean, l)) { //列是list或map的listRef不分组，跟原来一样不生成
+                    String group = "mgr." + groupMapName(l.refTable, l.foreignKeyDefine.ref.cols);
+                    ps.println2(refName(l) + " = new java.util.ArrayList<>(" + group + ".getOrDefault(" + groupKey(l.foreignKeyDefine.keys, "") + ", java.util.Collections.emptyList()));");
                 }
             });
 
@@ -592,16 +672,63 @@ public class GenJavaCode extends Generator {
 
         if (isTable) {
             //static get
-            generateMapGetBy(ttable.getPrimaryKey(), name, ps, true, mgrPrint);
+            generateMapGetBy(ttable, ttable.getPrimaryKey(), name, ps, true, mgrPrint);
 
             //static getByXxx
             for (Map<String, Type> uniqueKey : ttable.getUniqueKeys()) {
-                generateMapGetBy(uniqueKey, name, ps, false, mgrPrint);
+                generateMapGetBy(ttable, uniqueKey, name, ps, false, mgrPrint);
+            }
+
+            //listRef和index用的分组
+            for (String[] cols : listRefGroups.getOrDefault(ttable, Collections.emptyList())) {
+                String keyName = cols.length > 1 ? "java.util.List<?>" : boxType(tbean.getColumnMap().get(cols[0]));
+                mgrField(ttable, "java.util.Map<" + keyName + ", java.util.List<" + name.fullName + ">>", groupMapName(ttable, cols), "new java.util.HashMap<>()", mgrPrint);
+            }
+
+            //static getAllByXxx
+            for (Map<String, Type> index : ttable.getIndexes()) {
+                String[] cols = index.keySet().toArray(new String[0]);
+                ps.println1("public static java.util.List<" + name.className + "> " + indexGetByName(index) + "(" + formalParams(index) + ") {");
+                ps.println2("%s.ConfigMgr mgr = %s.ConfigMgr.getMgr();", pkg, pkg);
+                generateEnsure(ttable, ps);
+                ps.println2("return java.util.Collections.unmodifiableList(mgr.%s.getOrDefault(%s, java.util.Collections.emptyList()));", groupMapName(ttable, cols), groupKey(cols, ""));
+                ps.println1("}");
+                ps.println();
+            }
+
+            //static floorByXxx, ceilingByXxx, rangeByXxx
+            for (Type column : ttable.getRangeIndexes()) {
+                String rangeName = rangeIndexName(ttable, column);
+                mgrField(ttable, "configgen.genjava.RangeIndex<" + name.fullName + ">", rangeName, "new configgen.genjava.RangeIndex<>()", mgrPrint);
+                String col = upper1(column.name);
+                String param = lower1(column.name);
+                String t = type(column);
+                ps.println1("public static %s floorBy%s(%s %s) {", name.className, col, t, param);
+                ps.println2("%s.ConfigMgr mgr = %s.ConfigMgr.getMgr();", pkg, pkg);
+                generateEnsure(ttable, ps);
+                ps.println2("return mgr.%s.floor(%s);", rangeName, rangeKey(column, param));
+                ps.println1("}");
+                ps.println();
+                ps.println1("public static %s ceilingBy%s(%s %s) {", name.className, col, t, param);
+                ps.println2("%s.ConfigMgr mgr = %s.ConfigMgr.getMgr();", pkg, pkg);
+                generateEnsure(ttable, ps);
+                ps.println2("return mgr.%s.ceiling(%s);", rangeName, rangeKey(column, param));
+                ps.println1("}");
+                ps.println();
+                ps.println1("public static java.util.List<%s> rangeBy%s(%s from, %s to) {", name.className, col, t, t);
+                ps.println2("%s.ConfigMgr mgr = %s.ConfigMgr.getMgr();", pkg, pkg);
+                generateEnsure(ttable, ps);
+                ps.println2("return mgr.%s.range(%s, %s);", rangeName, rangeKey(column, "from"), rangeKey(column, "to"));
+                ps.println1("}");
+                ps.println();
             }
 
             //static all
-            ps.println1("public static java.util.Collection<" + name.className + "> all() {");
+            //isPrimaryKeySeq的表存在SeqStore里，all是按主键顺序的List
+            String allType = ttable.getTableDefine().isPrimaryKeySeq ? "java.util.List" : "java.util.Collection";
+            ps.println1("public static " + allType + "<" + name.className + "> all() {");
             ps.println2("%s.ConfigMgr mgr = %s.ConfigMgr.getMgr();", pkg, pkg);
+            generateEnsure(ttable, ps);
             ps.println2("return mgr.%sAll.values();", name.containerPrefix);
             ps.println1("}");
             ps.println();
@@ -610,11 +737,23 @@ public class GenJavaCode extends Generator {
             ps.println1("public static void _createAll(%s.ConfigMgr mgr, configgen.genjava.ConfigInput input) {", pkg);
             ps.println2("for (int c = input.readInt(); c > 0; c--) {");
             ps.println3("%s self = %s._create(input);", name.className, name.className);
-            generateAllMapPut(ttable, name, ps);
-            ps.println2("}");
+            generateTablePut(ttable, name, ps);
             ps.println1("}");
             ps.println();
 
+            //static _copyAll
+            if (tbean.hasRef()) {
+                ps.println1("/**");
+                ps.println1(" * reload时表没改但引用的表改了，复制old的对象放进mgr再resolve，old的对象不动");
+                ps.println1(" */");
+                ps.println1("public static void _copyAll(%s.ConfigMgr mgr, %s.ConfigMgr old) {", pkg, pkg);
+                ps.println2("for (%s e : old.%sAll.values()) {", name.className, name.containerPrefix);
+                ps.println3("%s self = e._copy();", name.className);
+                generateTablePut(ttable, name, ps);
+                ps.println1("}");
+                ps.println();
+            }
+
             //static _resolveAll
             if (tbean.hasRef()) {
                 ps.println1("public static void _resolveAll(%s.ConfigMgr mgr) {", pkg);
@@ -667,19 +806,42 @@ public class GenJavaCode extends Generator {
 
             @Override
             public String visit(TBean type) {
-                return fullName(type) + "._create(input)";
+                return internCreate(type);
             }
 
             @Override
             public String visit(TBeanRef type) {
-                return fullName(type.tBean) + "._create(input)";
+                return internCreate(type.tBean);
             }
         });
 
     }
 
-    private void generateMapGetBy(Map<String, Type> keys, Name name, CachedIndentPrinter ps, boolean isPrimaryKey, CachedIndentPrinter mgrPrint) {
-        if (keys.size() > 1) {
+    private String internCreate(TBean tbean) {
+        String create = fullName(tbean) + "._create(input)";
+        return isInterned(tbean) ? "input.intern(\"" + fullName(tbean) + "\", " + create + ")" : create;
+    }
+
+    /**
+     * 有引用的bean在_resolve里会改自己，不能共用
+     */
+    private boolean isInterned(Type t) {
+        return intern && !t.hasRef();
+    }
+
+    /**
+     * 外面没设interner就新建一个，load完可以input.getInterner().report()看每个类型省了多少
+     */
+    private void generateSetInterner(String input, CachedIndentPrinter ps) {
+        if (intern) {
+            ps.println2("if (%s.getInterner() == null) {", input);
+            ps.println3("%s.setInterner(new configgen.genjava.Interner());", input);
+            ps.println2("}");
+        }
+    }
+
+    private void generateMapGetBy(TTable ttable, Map<String, Type> keys, Name name, CachedIndentPrinter ps, boolean isPrimaryKey, CachedIndentPrinter mgrPrint) {
+        if (keys.size() > 1 && !isPackedKey(keys)) {
             generateKeyClass(keys, ps);
         }
 
@@ -688,23 +850,62 @@ public class GenJavaCode extends Generator {
         if (keys.size() > 1) {
             keyName = name.fullName + "." + keyName;
         }
-        mgrPrint.println1("public final java.util.Map<%s, %s> %s = new java.util.LinkedHashMap<>();", keyName, name.fullName, mapName);
+        String primitiveMap = primitiveMapClass(keys);
+        if (isPrimaryKey && ttable.getTableDefine().isPrimaryKeySeq) {
+            mgrField(ttable, "configgen.genjava.SeqStore<" + name.fullName + ">", mapName, "new configgen.genjava.SeqStore<>()", mgrPrint);
+        } else if (isPackedKey(keys)) {
+            mgrField(ttable, "configgen.genjava.LongMap<" + name.fullName + ">", mapName, "new configgen.genjava.LongMap<>()", mgrPrint);
+        } else if (primitiveMap != null) {
+            mgrField(ttable, primitiveMap + "<" + name.fullName + ">", mapName, "new " + primitiveMap + "<>()", mgrPrint);
+        } else {
+            mgrField(ttable, "java.util.Map<" + keyName + ", " + name.fullName + ">", mapName, "new java.util.LinkedHashMap<>()", mgrPrint);
+        }
 
         String getByName = isPrimaryKey ? "get" : uniqueKeyGetByName(keys);
         ps.println1("public static " + name.className + " " + getByName + "(" + formalParams(keys) + ") {");
         ps.println2("%s.ConfigMgr mgr = %s.ConfigMgr.getMgr();", pkg, pkg);
+        generateEnsure(ttable, ps);
         ps.println2("return mgr." + mapName + ".get(" + actualParamsKey(keys, "") + ");");
         ps.println1("}");
         ps.println();
     }
 
 
+    /**
+     * 单列int，long的键用不装箱的IntMap，LongMap
+     */
+    private static String primitiveMapClass(Map<String, Type> keys) {
+        if (keys.size() != 1) {
+            return null;
+        }
+        Type key = keys.values().iterator().next();
+        if (key instanceof TInt) {
+            return "configgen.genjava.IntMap";
+        } else if (key instanceof TLong) {
+            return "configgen.genjava.LongMap";
+        }
+        return null;
+    }
+
+    /**
+     * 两列int的键拼成一个long放LongMap里，查找不用构造键对象
+     */
+    private static boolean isPackedKey(Map<String, Type> keys) {
+        return keys.size() == 2 && keys.values().stream().allMatch(t -> t instanceof TInt);
+    }
+
     private String tableGet(TTable ttable, String[] cols, String actualParam) {
         boolean isPrimaryKey = cols.length == 0;
         Name name = new Name(ttable.getTBean());
+        Map<String, Type> keys = isPrimaryKey ? ttable.getPrimaryKey() : ttable.getTBean().getColumnMap().entrySet().stream()
+                .filter(e -> Arrays.asList(cols).contains(e.getKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
 
         if (ttable.getTableDefine().isEnumFull()) {
             return name.fullName + ".get(" + actualParam + ");";
+        } else if (isPackedKey(keys)) {
+            String mapName = isPrimaryKey ? "All" : uniqueKeyMapName(cols);
+            return "mgr." + name.containerPrefix + mapName + ".get(configgen.genjava.LongMap.pack(" + actualParam + "));";
         } else {
             String pre = "mgr." + name.containerPrefix;
 
@@ -724,6 +925,54 @@ public class GenJavaCode extends Generator {
         }
     }
 
+    /**
+     * 接在for循环里self之后，放进各个容器，结束循环
+     */
+    private void generateTablePut(TTable ttable, Name name, CachedIndentPrinter ps) {
+        generateAllMapPut(ttable, name, ps);
+        for (String[] cols : listRefGroups.getOrDefault(ttable, Collections.emptyList())) {
+            ps.println3("mgr.%s.computeIfAbsent(%s, k -> new java.util.ArrayList<>()).add(self);", groupMapName(ttable, cols), groupKey(cols, "self."));
+        }
+        for (Type column : ttable.getRangeIndexes()) {
+            ps.println3("mgr.%s.add(%s, self);", rangeIndexName(ttable, column), rangeKey(column, "self." + lower1(column.name)));
+        }
+        ps.println2("}");
+        for (Type column : ttable.getRangeIndexes()) {
+            ps.println2("mgr.%s.build();", rangeIndexName(ttable, column));
+        }
+    }
+
+    /**
+     * 复制一份没resolve的，引用了表的bean深复制，其他的值不会被改，直接共用
+     */
+    private void generateCopy(TBean tbean, Name name, CachedIndentPrinter ps) {
+        if (tbean.getBeanDefine().type == Bean.BeanType.ChildDynamicBean) {
+            ps.println1("@Override");
+        }
+        ps.println1("public %s _copy() {", name.className);
+        ps.println2("%s self = new %s();", name.className, name.className);
+        tbean.getColumnMap().forEach((n, t) -> {
+            String f = lower1(n);
+            if (t instanceof TList && isCopied(((TList) t).value)) {
+                ps.println2("%s.forEach(e -> self.%s.add(e._copy()));", f, f);
+            } else if (t instanceof TMap && (isCopied(((TMap) t).key) || isCopied(((TMap) t).value))) {
+                TMap tt = (TMap) t;
+                ps.println2("%s.forEach((k, v) -> self.%s.put(%s, %s));", f, f, isCopied(tt.key) ? "k._copy()" : "k", isCopied(tt.value) ? "v._copy()" : "v");
+            } else if (isCopied(t)) {
+                ps.println2("self.%s = %s._copy();", f, f);
+            } else {
+                ps.println2("self.%s = %s;", f, f);
+            }
+        });
+        ps.println2("return self;");
+        ps.println1("}");
+        ps.println();
+    }
+
+    private static boolean isCopied(Type t) {
+        return t instanceof TBeanRef && t.hasRef();
+    }
+
     private void generateAllMapPut(TTable ttable, Name name, CachedIndentPrinter ps) {
         generateMapPut(ttable.getPrimaryKey(), name, ps, true);
         for (Map<String, Type> uniqueKey : ttable.getUniqueKeys()) {
@@ -750,7 +999,7 @@ public class GenJavaCode extends Generator {
 
         ps.println2("@Override");
         ps.println2("public int hashCode() {");
-        ps.println3("return " + hashCodes(keys) + ";");
+        ps.println3("return " + keyHashCodes(keys) + ";");
         ps.println2("}");
         ps.println();
 
@@ -770,6 +1019,18 @@ public class GenJavaCode extends Generator {
         return "getBy" + keys.keySet().stream().map(Generator::upper1).reduce("", (a, b) -> a + b);
     }
 
+    private String rangeIndexName(TTable ttable, Type column) {
+        return new Name(ttable.getTBean()).containerPrefix + upper1(column.name) + "Range";
+    }
+
+    private static String rangeKey(Type column, String value) {
+        return column instanceof TFloat ? "configgen.genjava.RangeIndex.floatKey(" + value + ")" : value;
+    }
+
+    private String indexGetByName(Map<String, Type> keys) {
+        return "getAllBy" + keys.keySet().stream().map(Generator::upper1).reduce("", (a, b) -> a + b);
+    }
+
     private String uniqueKeyMapName(Map<String, Type> keys) {
         return keys.keySet().stream().map(Generator::upper1).reduce("", (a, b) -> a + b) + "Map";
     }
@@ -828,6 +1089,9 @@ public class GenJavaCode extends Generator {
 
             @Override
             public String visit(TList type) {
+                if (isPrimitiveArray(type)) {
+                    return _type(type.value, false) + "[]";
+                }
                 return "java.util.List<" + _type(type.value, true) + ">";
             }
 
@@ -878,7 +1142,7 @@ public class GenJavaCode extends Generator {
 
             @Override
             public String visit(TList type) {
-                return " = new java.util.ArrayList<>()";
+                return isPrimitiveArray(type) ? "" : " = new java.util.ArrayList<>()";
             }
 
             @Override
@@ -946,6 +1210,17 @@ public class GenJavaCode extends Generator {
         }
     }
 
+    /**
+     * primitiveList:true时，bool，int，long，float的list生成数组，元素不装箱
+     */
+    private boolean isPrimitiveArray(Type t) {
+        if (!primitiveList || !(t instanceof TList)) {
+            return false;
+        }
+        Type e = ((TList) t).value;
+        return e instanceof TBool || e instanceof TInt || e instanceof TLong || e instanceof TFloat;
+    }
+
     private String refName(SRef sr) {
         return (sr.refNullable ? "NullableRef" : "Ref") + upper1(sr.name);
     }
@@ -982,6 +1257,9 @@ public class GenJavaCode extends Generator {
 
     private String actualParamsKey(Map<String, Type> keys, String pre) {
         String p = keys.entrySet().stream().map(e -> pre + lower1(e.getKey())).collect(Collectors.joining(", "));
+        if (isPackedKey(keys)) {
+            return "configgen.genjava.LongMap.pack(" + p + ")";
+        }
         return keys.size() > 1 ? "new " + keyClassName(keys) + "(" + p + ")" : p;
     }
 
@@ -989,7 +1267,19 @@ public class GenJavaCode extends Generator {
         return fs.entrySet().stream().map(e -> hashCode(e.getKey(), e.getValue())).collect(Collectors.joining(" + "));
     }
 
-    private static String hashCode(String name, Type t) {
+    /**
+     * 键类的hashCode，按31*h+x组合，不像直接相加那样(1,2)和(2,1)冲突
+     */
+    private String keyHashCodes(Map<String, Type> fs) {
+        String h = null;
+        for (Map.Entry<String, Type> e : fs.entrySet()) {
+            String c = hashCode(e.getKey(), e.getValue());
+            h = h == null ? c : "31 * " + (h.contains(" + ") ? "(" + h + ")" : h) + " + " + c;
+        }
+        return h;
+    }
+
+    private String hashCode(String name, Type t) {
         String n = lower1(name);
         return t.accept(new TypeVisitorT<String>() {
             @Override
@@ -1019,7 +1309,7 @@ public class GenJavaCode extends Generator {
 
             @Override
             public String visit(TList type) {
-                return n + ".hashCode()";
+                return isPrimitiveArray(type) ? "java.util.Arrays.hashCode(" + n + ")" : n + ".hashCode()";
             }
 
             @Override
@@ -1090,6 +1380,9 @@ public class GenJavaCode extends Generator {
                 return true;
             }
         });
+        if (isPrimitiveArray(t)) {
+            return "java.util.Arrays.equals(" + a + ", " + b + ")";
+        }
         return eq ? a + ".equals(" + b + ")" : a + " == " + b;
     }
 
@@ -1102,57 +1395,344 @@ public class GenJavaCode extends Generator {
             ps.println("public class ConfigMgrLoader {");
             ps.println();
 
-            ps.println1("public static ConfigMgr load(configgen.genjava.ConfigInput input) {");
-            ps.println2("ConfigMgr mgr = new ConfigMgr();");
-
-            int cnt = 0;
-            for (VTable vTable : vdb.getVTables()) {
-                if (vTable.getTTable().getTableDefine().isEnumFull() && vTable.getTTable().getTableDefine().isEnumHasOnlyPrimaryKeyAndEnumStr()) {
-                    continue;
-                }
-                cnt++;
+            List<VTable> dataTables = dataTables(vdb);
+            if (lazy) {
+                generateLazyLoader(dataTables, ps);
+                ps.println("}");
+                return;
             }
 
-
+            ps.println1("public static ConfigMgr load(configgen.genjava.ConfigInput input) {");
+            generateSetInterner("input", ps);
+            ps.println2("ConfigMgr mgr = new ConfigMgr();");
             ps.println2("int c = input.readInt();");
-            ps.println2("if (c < %d) {", cnt);
+            ps.println2("if (c < %d) {", dataTables.size());
             ps.println3("throw new IllegalArgumentException();");
             ps.println2("}");
             ps.println2("for (int i = 0; i < c; i++) {");
             ps.println3("String tableName = input.readStr();");
             ps.println3("int tableSize = input.readInt();");
             ps.println3("switch (tableName) {");
-            for (VTable vTable : vdb.getVTables()) {
-                if (vTable.getTTable().getTableDefine().isEnumFull() && vTable.getTTable().getTableDefine().isEnumHasOnlyPrimaryKeyAndEnumStr()) {
-                    continue;
-                }
-
+            for (VTable vTable : dataTables) {
                 ps.println4("case \"%s\":", vTable.name);
                 ps.println5("%s._createAll(mgr, input);", tableDataFullName(vTable.getTTable()));
                 ps.println5("break;");
             }
-
             ps.println4("default:");
             ps.println5("input.skipBytes(tableSize);");
             ps.println5("break;");
             ps.println3("}");
             ps.println2("}");
             ps.println();
+            generateResolveAll(dataTables, ps);
+            ps.println2("return mgr;");
+            ps.println1("}");
+            ps.println();
 
-            for (VTable vTable : vdb.getVTables()) {
-                if (vTable.getTTable().getTableDefine().isEnumFull() && vTable.getTTable().getTableDefine().isEnumHasOnlyPrimaryKeyAndEnumStr()) {
-                    continue;
+            //多线程
+            ps.println1("/**");
+            ps.println1(" * 每个表的数据切出来在executor上并行解析，都解析完后再resolve");
+            ps.println1(" */");
+            ps.println1("public static ConfigMgr load(configgen.genjava.ConfigInput input, java.util.concurrent.ExecutorService executor) {");
+            generateSetInterner("input", ps);
+            ps.println2("ConfigMgr mgr = new ConfigMgr();");
+            ps.println2("int c = input.readInt();");
+            ps.println2("if (c < %d) {", dataTables.size());
+            ps.println3("throw new IllegalArgumentException();");
+            ps.println2("}");
+            ps.println2("java.util.List<java.util.concurrent.Future<?>> futures = new java.util.ArrayList<>();");
+            ps.println2("for (int i = 0; i < c; i++) {");
+            ps.println3("String tableName = input.readStr();");
+            ps.println3("int tableSize = input.readInt();");
+            ps.println3("java.util.function.Consumer<configgen.genjava.ConfigInput> create;");
+            ps.println3("switch (tableName) {");
+            for (VTable vTable : dataTables) {
+                ps.println4("case \"%s\":", vTable.name);
+                ps.println5("create = in -> %s._createAll(mgr, in);", tableDataFullName(vTable.getTTable()));
+                ps.println5("break;");
+            }
+            ps.println4("default:");
+            ps.println5("create = null;");
+            ps.println5("break;");
+            ps.println3("}");
+            ps.println3("if (create == null) {");
+            ps.println4("input.skipBytes(tableSize);");
+            ps.println3("} else {");
+            ps.println4("configgen.genjava.ConfigInput tableInput = input.readSlice(tableSize);");
+            ps.println4("futures.add(executor.submit(() -> create.accept(tableInput)));");
+            ps.println3("}");
+            ps.println2("}");
+            ps.println2("for (java.util.concurrent.Future<?> future : futures) {");
+            ps.println3("try {");
+            ps.println4("future.get();");
+            ps.println3("} catch (InterruptedException e) {");
+            ps.println4("Thread.currentThread().interrupt();");
+            ps.println4("throw new IllegalStateException(e);");
+            ps.println3("} catch (java.util.concurrent.ExecutionException e) {");
+            ps.println4("throw new IllegalStateException(e.getCause());");
+            ps.println3("}");
+            ps.println2("}");
+            ps.println();
+            generateResolveAll(dataTables, ps);
+            ps.println2("return mgr;");
+            ps.println1("}");
+            ps.println();
+            generateReload(dataTables, ps);
+            ps.println("}");
+        }
+    }
+
+    private void generateReload(List<VTable> dataTables, CachedIndentPrinter ps) {
+        Map<String, TTable> tables = new LinkedHashMap<>();
+        for (VTable vTable : dataTables) {
+            tables.put(vTable.name, vTable.getTTable());
+        }
+
+        ps.println1("/**");
+        ps.println1(" * delta是javadata配prev生成的，只含改了的表，跟load一样先Schema.create再传进来。");
+        ps.println1(" * 没改的表直接用old的容器和对象；直接或间接引用了改了的表的，复制old的对象再resolve。");
+        ps.println1(" * old的对象都不改，reload期间还在用old的线程不受影响");
+        ps.println1(" */");
+        ps.println1("public static ConfigMgr reload(ConfigMgr old, configgen.genjava.ConfigInput delta) {");
+        generateSetInterner("delta", ps);
+        ps.println2("java.util.Map<String, configgen.genjava.ConfigInput> inputs = new java.util.LinkedHashMap<>();");
+        ps.println2("for (int c = delta.readInt(); c > 0; c--) {");
+        ps.println3("String tableName = delta.readStr();");
+        ps.println3("int tableSize = delta.readInt();");
+        ps.println3("inputs.put(tableName, delta.readSlice(tableSize));");
+        ps.println2("}");
+        ps.println2("java.util.Set<String> renewed = new java.util.HashSet<>(inputs.keySet());");
+        List<TTable> refTables = new ArrayList<>();
+        for (TTable ttable : tables.values()) {
+            if (ttable.getTBean().hasRef() && ttable.getRefTables().stream().anyMatch(r -> r != ttable && tables.containsKey(r.name))) {
+                refTables.add(ttable);
+            }
+        }
+        if (!refTables.isEmpty()) {
+            ps.println2("for (boolean more = true; more; ) {");
+            ps.println3("more = false;");
+            for (TTable ttable : refTables) {
+                List<String> conds = new ArrayList<>();
+                for (TTable ref : ttable.getRefTables()) {
+                    if (ref != ttable && tables.containsKey(ref.name)) {
+                        conds.add("renewed.contains(\"" + ref.name + "\")");
+                    }
                 }
+                ps.println3("if (!renewed.contains(\"%s\") && (%s)) {", ttable.name, String.join(" || ", conds));
+                ps.println4("renewed.add(\"%s\");", ttable.name);
+                ps.println4("more = true;");
+                ps.println3("}");
+            }
+            ps.println2("}");
+        }
+        ps.println2("ConfigMgr mgr = new ConfigMgr(old, renewed);");
+        ps.println2("for (java.util.Map.Entry<String, configgen.genjava.ConfigInput> e : inputs.entrySet()) {");
+        ps.println3("switch (e.getKey()) {");
+        for (Map.Entry<String, TTable> e : tables.entrySet()) {
+            ps.println4("case \"%s\":", e.getKey());
+            ps.println5("%s._createAll(mgr, e.getValue());", tableDataFullName(e.getValue()));
+            ps.println5("break;");
+        }
+        ps.println3("}");
+        ps.println2("}");
+        for (TTable ttable : refTables) {
+            ps.println2("if (renewed.contains(\"%s\") && !inputs.containsKey(\"%s\")) {", ttable.name, ttable.name);
+            ps.println3("%s._copyAll(mgr, old);", tableDataFullName(ttable));
+            ps.println2("}");
+        }
+        ps.println();
+        for (Map.Entry<String, TTable> e : tables.entrySet()) {
+            TTable ttable = e.getValue();
+            if (!ttable.getTBean().hasRef()) {
+                continue;
+            }
+            ps.println2("if (renewed.contains(\"%s\")) {", e.getKey());
+            ps.println3("%s._resolveAll(mgr);", tableDataFullName(ttable));
+            ps.println2("}");
+        }
+        ps.println2("return mgr;");
+        ps.println1("}");
+    }
+
+    private void mgrField(TTable ttable, String type, String fieldName, String init, CachedIndentPrinter mgrPrint) {
+        mgrPrint.println1("public final %s %s;", type, fieldName);
+        mgrFieldInits.add(String.format("%s = old == null || reloaded.contains(\"%s\") ? %s : old.%s;", fieldName, ttable.name, init, fieldName));
+    }
+
+    private void generateMgrConstructor(CachedIndentPrinter mgrPrint) {
+        mgrPrint.println1("public ConfigMgr() {");
+        mgrPrint.println2("this(null, null);");
+        mgrPrint.println1("}");
+        mgrPrint.println();
+        mgrPrint.println1("/**");
+        mgrPrint.println1(" * reload用，old不为null时不在reloaded里的表直接用old的容器，在的新建");
+        mgrPrint.println1(" */");
+        mgrPrint.println1("ConfigMgr(ConfigMgr old, java.util.Set<String> reloaded) {");
+        for (String init : mgrFieldInits) {
+            mgrPrint.println2(init);
+        }
+        mgrPrint.println1("}");
+    }
+
+    private static List<VTable> dataTables(VDb vdb) {
+        List<VTable> dataTables = new ArrayList<>();
+        for (VTable vTable : vdb.getVTables()) {
+            if (vTable.getTTable().getTableDefine().isEnumFull() && vTable.getTTable().getTableDefine().isEnumHasOnlyPrimaryKeyAndEnumStr()) {
+                continue;
+            }
+            dataTables.add(vTable);
+        }
+        return dataTables;
+    }
+
+    private void generateLazyLoader(List<VTable> dataTables, CachedIndentPrinter ps) {
+        ps.println1("/**");
+        ps.println1(" * 只切出每个表的数据，表第一次get或all时才解析");
+        ps.println1(" */");
+        ps.println1("public static ConfigMgr load(configgen.genjava.ConfigInput input) {");
+        generateSetInterner("input", ps);
+        ps.println2("ConfigMgr mgr = new ConfigMgr();");
+        ps.println2("int c = input.readInt();");
+        ps.println2("if (c < %d) {", dataTables.size());
+        ps.println3("throw new IllegalArgumentException();");
+        ps.println2("}");
+        ps.println2("for (int i = 0; i < c; i++) {");
+        ps.println3("String tableName = input.readStr();");
+        ps.println3("int tableSize = input.readInt();");
+        ps.println3("switch (tableName) {");
+        for (VTable vTable : dataTables) {
+            ps.println4("case \"%s\":", vTable.name);
+            ps.println5("mgr._setInput(ConfigMgr.%s, input.readSlice(tableSize));", lazyIndexName(vTable.getTTable()));
+            ps.println5("break;");
+        }
+        ps.println4("default:");
+        ps.println5("input.skipBytes(tableSize);");
+        ps.println5("break;");
+        ps.println3("}");
+        ps.println2("}");
+        ps.println2("return mgr;");
+        ps.println1("}");
+    }
+
+    private String lazyIndexName(TTable ttable) {
+        return new Name(ttable.getTBean()).containerPrefix + "Index";
+    }
 
-                if (vTable.getTTable().getTBean().hasRef()) {
-                    ps.println2("%s._resolveAll(mgr);", tableDataFullName(vTable.getTTable()));
+    private void generateEnsure(TTable ttable, CachedIndentPrinter ps) {
+        if (lazy) {
+            ps.println2("mgr._ensure(%s.ConfigMgr.%s);", pkg, lazyIndexName(ttable));
+        }
+    }
+
+    /**
+     * lazy时ConfigMgr存每个表的数据，第一次访问时在锁里把这个表和它直接间接引用的表一起解析和resolve，
+     * 都完成了才标记，所以其他线程不会看到resolve了一半的表
+     */
+    private void generateLazyLoad(List<VTable> dataTables, CachedIndentPrinter ps) {
+        Map<TTable, Integer> indexes = new LinkedHashMap<>();
+        for (VTable vTable : dataTables) {
+            indexes.put(vTable.getTTable(), indexes.size());
+        }
+        int count = indexes.size();
+
+        for (Map.Entry<TTable, Integer> e : indexes.entrySet()) {
+            ps.println1("public static final int %s = %d;", lazyIndexName(e.getKey()), e.getValue());
+        }
+        ps.println();
+        ps.println1("private static final int[][] _refs = {");
+        for (TTable ttable : indexes.keySet()) {
+            List<String> refs = new ArrayList<>();
+            for (TTable ref : ttable.getRefTables()) {
+                if (ref != ttable && indexes.containsKey(ref)) {
+                    refs.add(lazyIndexName(ref));
                 }
             }
+            ps.println2("{%s},", String.join(", ", refs));
+        }
+        ps.println1("};");
+        ps.println();
+        ps.println1("private final configgen.genjava.ConfigInput[] _inputs = new configgen.genjava.ConfigInput[%d];", count);
+        ps.println1("//0：没解析，1：解析了没resolve，2：完成");
+        ps.println1("private final java.util.concurrent.atomic.AtomicIntegerArray _states = new java.util.concurrent.atomic.AtomicIntegerArray(%d);", count);
+        ps.println();
 
-            ps.println2("return mgr;");
+        ps.println1("void _setInput(int table, configgen.genjava.ConfigInput input) {");
+        ps.println2("_inputs[table] = input;");
+        ps.println1("}");
+        ps.println();
 
-            ps.println1("}");
-            ps.println("}");
+        ps.println1("public void _ensure(int table) {");
+        ps.println2("if (_states.get(table) != 2) {");
+        ps.println3("_load(table);");
+        ps.println2("}");
+        ps.println1("}");
+        ps.println();
+
+        ps.println1("private synchronized void _load(int table) {");
+        ps.println2("if (_states.get(table) == 2) {");
+        ps.println3("return;");
+        ps.println2("}");
+        ps.println2("java.util.List<Integer> tables = new java.util.ArrayList<>();");
+        ps.println2("boolean[] visited = new boolean[%d];", count);
+        ps.println2("tables.add(table);");
+        ps.println2("visited[table] = true;");
+        ps.println2("for (int i = 0; i < tables.size(); i++) {");
+        ps.println3("for (int ref : _refs[tables.get(i)]) {");
+        ps.println4("if (!visited[ref] && _states.get(ref) != 2) {");
+        ps.println5("visited[ref] = true;");
+        ps.println5("tables.add(ref);");
+        ps.println4("}");
+        ps.println3("}");
+        ps.println2("}");
+        ps.println2("for (int t : tables) {");
+        ps.println3("if (_states.get(t) == 0) {");
+        ps.println4("_create(t);");
+        ps.println4("_states.set(t, 1);");
+        ps.println3("}");
+        ps.println2("}");
+        ps.println2("for (int t : tables) {");
+        ps.println3("_resolve(t);");
+        ps.println2("}");
+        ps.println2("for (int t : tables) {");
+        ps.println3("_states.set(t, 2);");
+        ps.println2("}");
+        ps.println1("}");
+        ps.println();
+
+        ps.println1("private void _create(int table) {");
+        ps.println2("configgen.genjava.ConfigInput input = _inputs[table];");
+        ps.println2("_inputs[table] = null;");
+        ps.println2("if (input == null) {");
+        ps.println3("return;");
+        ps.println2("}");
+        ps.println2("switch (table) {");
+        for (TTable ttable : indexes.keySet()) {
+            ps.println3("case %s:", lazyIndexName(ttable));
+            ps.println4("%s._createAll(this, input);", tableDataFullName(ttable));
+            ps.println4("break;");
+        }
+        ps.println2("}");
+        ps.println1("}");
+        ps.println();
+
+        ps.println1("private void _resolve(int table) {");
+        ps.println2("switch (table) {");
+        for (TTable ttable : indexes.keySet()) {
+            if (ttable.getTBean().hasRef()) {
+                ps.println3("case %s:", lazyIndexName(ttable));
+                ps.println4("%s._resolveAll(this);", tableDataFullName(ttable));
+                ps.println4("break;");
+            }
+        }
+        ps.println2("}");
+        ps.println1("}");
+    }
+
+    private void generateResolveAll(List<VTable> dataTables, CachedIndentPrinter ps) {
+        for (VTable vTable : dataTables) {
+            if (vTable.getTTable().getTBean().hasRef()) {
+                ps.println2("%s._resolveAll(mgr);", tableDataFullName(vTable.getTTable()));
+            }
         }
     }
 
@@ -6,6 +6,12 @@ import configgen.util.CachedFileOutputStream;
 import configgen.value.*;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public final class GenJavaData extends Generator {
 
@@ -18,26 +24,77 @@ public final class GenJavaData extends Generator {
 
             @Override
             public String usage() {
-                return "file:config.data";
+                return "file:config.data,compact:false,stringpool:false,directory:false,prev:,delta:config.delta    compact:true时int,long用varint写，stringpool:true时相同字符串只存一份，directory:true时文件尾加表目录，prev配上一版的file时另写只含改动表的delta";
             }
         });
     }
 
     private final File file;
+    private final int format;
+    private final File prevFile;
+    private final File deltaFile;
 
     private GenJavaData(Parameter parameter) {
         super(parameter);
         file = new File(parameter.getNotEmpty("file", "config.data"));
+        int f = 0;
+        if (Boolean.parseBoolean(parameter.get("compact", "false"))) {
+            f |= Schema.FORMAT_VARINT;
+        }
+        if (Boolean.parseBoolean(parameter.get("stringpool", "false"))) {
+            f |= Schema.FORMAT_STRING_POOL;
+        }
+        if (Boolean.parseBoolean(parameter.get("directory", "false"))) {
+            f |= Schema.FORMAT_DIRECTORY;
+        }
+        format = f;
+        String prev = parameter.get("prev", "");
+        prevFile = prev.isEmpty() ? null : new File(prev);
+        deltaFile = new File(parameter.getNotEmpty("delta", "config.delta"));
         parameter.end();
     }
 
     @Override
     public void generate(Context ctx) throws IOException {
         VDb value = ctx.makeValue();
-        try (ConfigOutput output = new ConfigOutput(new DataOutputStream(new CachedFileOutputStream(file, 2048 * 1024)))) {
-            Schema schema = GenSchema.parse(value);
-            schema.write(output);
-            writeValue(value, output);
+        Schema schema = GenSchema.parse(value);
+        List<VTable> tables = new ArrayList<>();
+        for (VTable vTable : value.getVTables()) {
+            if (vTable.getTTable().getTableDefine().isEnumFull() && vTable.getTTable().getTableDefine().isEnumHasOnlyPrimaryKeyAndEnumStr()) {
+                Logger.verbose("ignore write data" + vTable.name);
+            } else {
+                tables.add(vTable);
+            }
+        }
+
+        // 要在写新文件之前读，prev可能就是file
+        List<VTable> changed = prevFile != null ? changedTables(schema, tables) : null;
+        write(file, format, schema, tables);
+        if (changed != null) {
+            Logger.verbose("delta " + changed.size() + " tables");
+            write(deltaFile, format & ~Schema.FORMAT_DIRECTORY, schema, changed);
+        }
+    }
+
+    private static void write(File file, int format, Schema schema, List<VTable> tables) throws IOException {
+        // 字符串池要写在前面，所以先写到内存里收集池
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream(2048 * 1024);
+        try (ConfigOutput body = new ConfigOutput(new DataOutputStream(bodyBytes), format)) {
+            schema.write(body);
+            TableDirectory directory = writeValue(tables, body);
+
+            try (ConfigOutput output = new ConfigOutput(new DataOutputStream(new CachedFileOutputStream(file, 2048 * 1024)), body)) {
+                output.writeHeader();
+                int base = output.size();
+                byte[] bytes = bodyBytes.toByteArray();
+                output.write(bytes, 0, bytes.length);
+                if ((format & Schema.FORMAT_DIRECTORY) != 0) {
+                    int directoryOffset = output.size();
+                    directory.shift(base).write(output);
+                    output.writeFixedInt(directoryOffset);
+                    output.writeFixedInt(Schema.FORMAT);
+                }
+            }
         }
     }
 
@@ -99,32 +156,81 @@ public final class GenJavaData extends Generator {
         }
     }
 
-    private void writeValue(VDb vDb, ConfigOutput output) throws IOException {
-        int cnt = 0;
-        for (VTable vTable : vDb.getVTables()) {
-            if (vTable.getTTable().getTableDefine().isEnumFull() && vTable.getTTable().getTableDefine().isEnumHasOnlyPrimaryKeyAndEnumStr()) {
-                Logger.verbose("ignore write data" + vTable.name);
-            } else {
-                cnt++;
-            }
+    /**
+     * @return 表目录，位置相对output开头
+     */
+    private static TableDirectory writeValue(List<VTable> tables, ConfigOutput output) throws IOException {
+        TableDirectory directory = new TableDirectory();
+        output.writeInt(tables.size());
+        for (VTable vTable : tables) {
+            byte[] bytes = tableBytes(vTable, new ByteArrayOutputStream(), output);
+            output.writeStr(vTable.name);
+            output.writeInt(bytes.length);
+            directory.add(new TableDirectory.Entry(vTable.name, output.size(), bytes.length, TableDirectory.checksum(bytes, 0, bytes.length)));
+            output.write(bytes, 0, bytes.length);
         }
-        output.writeInt(cnt);
-        for (VTable vTable : vDb.getVTables()) {
-            if (vTable.getTTable().getTableDefine().isEnumFull() && vTable.getTTable().getTableDefine().isEnumHasOnlyPrimaryKeyAndEnumStr()) {
-                continue;
-            }
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            try (ConfigOutput otherOutput = new ConfigOutput(new DataOutputStream(byteArrayOutputStream))) {
-                ValueVisitor visitor = new SimpleValueVisitor(otherOutput);
-                otherOutput.writeInt(vTable.getVBeanList().size());
-                vTable.getVBeanList().forEach(v -> v.accept(visitor));
-                byte[] bytes = byteArrayOutputStream.toByteArray();
-                output.writeStr(vTable.name);
-                output.writeInt(bytes.length);
-                output.write(bytes, 0, bytes.length);
+        return directory;
+    }
+
+    private static byte[] tableBytes(VTable vTable, ByteArrayOutputStream byteArrayOutputStream, ConfigOutput sameFormatAs) throws IOException {
+        try (ConfigOutput otherOutput = new ConfigOutput(new DataOutputStream(byteArrayOutputStream), sameFormatAs)) {
+            ValueVisitor visitor = new SimpleValueVisitor(otherOutput);
+            otherOutput.writeInt(vTable.getVBeanList().size());
+            vTable.getVBeanList().forEach(v -> v.accept(visitor));
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    /**
+     * 跟prev比，序列化后字节不同的表，prev里没有的表也算。
+     * 字符串池的序号两个文件不一样，所以新的表按prev的格式和池再写一遍来比。
+     * schema不兼容时生成的代码要重新load，delta里就写全部表
+     */
+    private List<VTable> changedTables(Schema schema, List<VTable> tables) throws IOException {
+        byte[] prevBytes = Files.readAllBytes(prevFile.toPath());
+        ByteBufferConfigInput prev = new ByteBufferConfigInput(ByteBuffer.wrap(prevBytes));
+        Schema prevSchema = Schema.create(prev);
+        boolean compatible;
+        try {
+            compatible = schema.compatible(prevSchema);
+        } catch (SchemaCompatibleException e) {
+            compatible = false;
+        }
+        if (!compatible) {
+            Logger.log("schema changed since " + prevFile + ", delta contains all tables");
+            return tables;
+        }
+
+        Map<String, int[]> prevTables = new HashMap<>();
+        for (int c = prev.readInt(); c > 0; c--) {
+            String tableName = prev.readStr();
+            int tableSize = prev.readInt();
+            prevTables.put(tableName, new int[]{prev.position(), tableSize});
+            prev.skipBytes(tableSize);
+        }
+
+        List<VTable> changed = new ArrayList<>();
+        ConfigOutput prevFormat = new ConfigOutput(new DataOutputStream(new ByteArrayOutputStream()), prev);
+        for (VTable vTable : tables) {
+            int[] range = prevTables.get(vTable.name);
+            byte[] bytes = tableBytes(vTable, new ByteArrayOutputStream(), prevFormat);
+            if (range == null || !equals(bytes, prevBytes, range[0], range[1])) {
+                changed.add(vTable);
             }
         }
+        return changed;
+    }
 
+    private static boolean equals(byte[] bytes, byte[] prevBytes, int offset, int length) {
+        if (bytes.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] != prevBytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
 }
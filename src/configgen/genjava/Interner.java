@@ -0,0 +1,69 @@
+package configgen.genjava;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * -gen java,intern:true时，生成的_create把不含引用的bean和list交给这里，值相等的共用第一个对象。
+ * 按类型分池，记录读了多少个，留下多少个。并行load时多个表同时用，所以都是并发容器
+ */
+public final class Interner {
+
+    public static final class Stat {
+        public final String type;
+        public final int total;
+        public final int unique;
+
+        Stat(String type, int total, int unique) {
+            this.type = type;
+            this.total = total;
+            this.unique = unique;
+        }
+
+        /**
+         * 省掉的对象比例
+         */
+        public double dedupRatio() {
+            return total == 0 ? 0 : 1.0 - (double) unique / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: total %d, unique %d, dedup %.1f%%", type, total, unique, dedupRatio() * 100);
+        }
+    }
+
+    private static final class Pool {
+        final Map<Object, Object> values = new ConcurrentHashMap<>();
+        final AtomicInteger total = new AtomicInteger();
+    }
+
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> T intern(String type, T value) {
+        Pool pool = pools.computeIfAbsent(type, k -> new Pool());
+        pool.total.incrementAndGet();
+        Object old = pool.values.putIfAbsent(value, value);
+        return old != null ? (T) old : value;
+    }
+
+    /**
+     * 按类型名排序
+     */
+    public Map<String, Stat> stats() {
+        Map<String, Stat> res = new TreeMap<>();
+        pools.forEach((type, pool) -> res.put(type, new Stat(type, pool.total.get(), pool.values.size())));
+        return res;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Stat stat : stats().values()) {
+            sb.append(stat).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
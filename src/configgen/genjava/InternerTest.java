@@ -0,0 +1,40 @@
+package configgen.genjava;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class InternerTest {
+
+    @Test
+    public void equalValuesShareFirstInstanceAndCountPerType() {
+        Interner interner = new Interner();
+        List<Integer> a = Arrays.asList(1, 2);
+        List<Integer> b = Arrays.asList(1, 2);
+        assertSame(a, interner.intern("list", a));
+        assertSame(a, interner.intern("list", b));
+        assertNotSame(a, interner.intern("list", Arrays.asList(2, 1)));
+        assertNotSame(a, interner.intern("other", b));
+
+        Interner.Stat stat = interner.stats().get("list");
+        assertEquals(3, stat.total);
+        assertEquals(2, stat.unique);
+        assertEquals(1.0 / 3, stat.dedupRatio(), 1e-9);
+        assertEquals(1, interner.stats().get("other").total);
+    }
+
+    @Test
+    public void inputWithoutInternerReturnsValue() {
+        ConfigInput input = new ConfigInput(null);
+        List<Integer> a = Arrays.asList(1, 2);
+        assertSame(a, input.intern("list", a));
+        input.setInterner(new Interner());
+        input.intern("list", a);
+        assertSame(a, input.intern("list", Arrays.asList(1, 2)));
+    }
+}
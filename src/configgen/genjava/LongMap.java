@@ -0,0 +1,110 @@
+package configgen.genjava;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * long做键的表索引，get不装箱。键和值按插入顺序存在数组里，values跟LinkedHashMap一样是插入顺序，
+ * hash表开放寻址只存数组下标+1，0表示空。只加不删，生成的ConfigMgr里替代Map&lt;Long, T&gt;
+ */
+public final class LongMap<T> {
+    private long[] keys = new long[8];
+    private Object[] values = new Object[8];
+    private int size;
+    private int[] slots = new int[16];
+    private int mask = 15;
+    private final List<T> view = new AbstractList<T>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index >= size) {
+                throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+            }
+            return (T) values[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    };
+
+    /**
+     * 两个int拼成一个long做键，high在高32位
+     */
+    public static long pack(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int slot(long key) {
+        int i = hash(key) & mask;
+        while (slots[i] != 0 && keys[slots[i] - 1] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * 键已有时替换值，位置不变
+     */
+    @SuppressWarnings("unchecked")
+    public T put(long key, T value) {
+        int i = slot(key);
+        if (slots[i] != 0) {
+            T old = (T) values[slots[i] - 1];
+            values[slots[i] - 1] = value;
+            return old;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        slots[i] = size;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return null;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        mask = slots.length - 1;
+        for (int idx = 0; idx < size; idx++) {
+            int i = hash(keys[idx]) & mask;
+            while (slots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = idx + 1;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(long key) {
+        int idx = slots[slot(key)];
+        return idx != 0 ? (T) values[idx - 1] : null;
+    }
+
+    public boolean containsKey(long key) {
+        return slots[slot(key)] != 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 插入顺序，不可修改
+     */
+    public List<T> values() {
+        return view;
+    }
+}
@@ -0,0 +1,40 @@
+package configgen.genjava;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PrimitiveMapTest {
+
+    @Test
+    public void intMapKeepsInsertionOrder() {
+        IntMap<String> map = new IntMap<>();
+        for (int i = 1000; i > -1000; i -= 7) {
+            assertNull(map.put(i * 16, "v" + i));
+        }
+        assertEquals("v1000", map.put(16000, "x"));
+        assertEquals(286, map.size());
+        assertEquals("x", map.values().get(0));
+        assertEquals("v993", map.values().get(1));
+        assertEquals("v-1", map.get(-16));
+        assertNull(map.get(17));
+        assertFalse(map.containsKey(0));
+        assertTrue(map.containsKey(-16));
+    }
+
+    @Test
+    public void longMapGet() {
+        LongMap<Integer> map = new LongMap<>();
+        map.put(Long.MIN_VALUE, 1);
+        map.put(1L << 32, 2);
+        map.put(1, 3);
+        assertEquals(Arrays.asList(1, 2, 3), map.values());
+        assertEquals(Integer.valueOf(2), map.get(1L << 32));
+        assertFalse(map.containsKey(0));
+    }
+}
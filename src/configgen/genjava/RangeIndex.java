@@ -0,0 +1,142 @@
+package configgen.genjava;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 配了rangeIndex的列，按列值排好序的索引，floor，ceiling，range都是二分查找。
+ * int，long列直接用值做键，float列用floatKey转成保序的long。
+ * 读入时add，读完build一次，值相同的行保持原来的顺序
+ */
+public final class RangeIndex<T> {
+    private long[] keys = new long[16];
+    private Object[] values = new Object[16];
+    private int size;
+    private final List<T> view = new AbstractList<T>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index >= size) {
+                throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+            }
+            return (T) values[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    };
+
+    /**
+     * float转成long，保持大小顺序，-0.0f排在0.0f前
+     */
+    public static long floatKey(float v) {
+        int bits = Float.floatToIntBits(v);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    public void add(long key, T value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+    }
+
+    public void build() {
+        boolean sorted = true;
+        for (int i = 1; i < size && sorted; i++) {
+            sorted = keys[i - 1] <= keys[i];
+        }
+        if (sorted) {
+            return;
+        }
+
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b])); //稳定排序
+        long[] ks = new long[size];
+        Object[] vs = new Object[size];
+        for (int i = 0; i < size; i++) {
+            ks[i] = keys[order[i]];
+            vs[i] = values[order[i]];
+        }
+        keys = ks;
+        values = vs;
+    }
+
+    /**
+     * 第一个 >= key 的位置
+     */
+    private int lowerBound(long key) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 第一个 > key 的位置
+     */
+    private int upperBound(long key) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 值 <= key 的最后一行，没有返回null
+     */
+    @SuppressWarnings("unchecked")
+    public T floor(long key) {
+        int i = upperBound(key) - 1;
+        return i >= 0 ? (T) values[i] : null;
+    }
+
+    /**
+     * 值 >= key 的第一行，没有返回null
+     */
+    @SuppressWarnings("unchecked")
+    public T ceiling(long key) {
+        int i = lowerBound(key);
+        return i < size ? (T) values[i] : null;
+    }
+
+    /**
+     * from <= 值 <= to 的所有行，按值排序，不可修改
+     */
+    public List<T> range(long from, long to) {
+        int lo = lowerBound(from);
+        int hi = upperBound(to);
+        return lo < hi ? view.subList(lo, hi) : Collections.emptyList();
+    }
+
+    /**
+     * 按值排序的所有行，不可修改
+     */
+    public List<T> values() {
+        return view;
+    }
+}
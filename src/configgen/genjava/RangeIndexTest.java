@@ -0,0 +1,40 @@
+package configgen.genjava;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RangeIndexTest {
+
+    @Test
+    public void floorCeilingRangeKeepOrderOfEqualKeys() {
+        RangeIndex<String> idx = new RangeIndex<>();
+        long[] keys = {30, 10, 20, 10, 30, 20, 10};
+        for (int i = 0; i < keys.length; i++) {
+            idx.add(keys[i], "r" + i);
+        }
+        idx.build();
+        assertEquals(Arrays.asList("r1", "r3", "r6", "r2", "r5", "r0", "r4"), idx.values());
+        assertEquals("r5", idx.floor(25));
+        assertEquals("r5", idx.floor(20));
+        assertEquals("r2", idx.ceiling(20));
+        assertEquals("r0", idx.ceiling(21));
+        assertNull(idx.floor(9));
+        assertNull(idx.ceiling(31));
+        assertEquals(Arrays.asList("r2", "r5", "r0", "r4"), idx.range(11, 30));
+        assertEquals(Collections.emptyList(), idx.range(21, 29));
+    }
+
+    @Test
+    public void floatKeyKeepsOrder() {
+        float[] fs = {Float.NEGATIVE_INFINITY, -100.5f, -1f, -Float.MIN_VALUE, -0f, 0f, Float.MIN_VALUE, 0.5f, 1f, 3e20f, Float.POSITIVE_INFINITY};
+        for (int i = 1; i < fs.length; i++) {
+            assertTrue(fs[i] + "", RangeIndex.floatKey(fs[i - 1]) < RangeIndex.floatKey(fs[i]));
+        }
+    }
+}
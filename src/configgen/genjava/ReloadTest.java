@@ -0,0 +1,167 @@
+package configgen.genjava;
+
+import configgen.gen.Main;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 生成java代码和javadata，编译后load，改item表两次reload，
+ * 看引用item的bag，间接引用的box都换成了新对象，old的对象没被改
+ */
+public class ReloadTest {
+    private Path dir;
+    private URLClassLoader loader;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("reloadtest");
+        Path data = Files.createDirectory(dir.resolve("data"));
+        write(data.resolve("config.xml"),
+                "<?xml version=\"1.0\" encoding=\"GBK\"?>",
+                "<db>",
+                "    <table name=\"bag\" primaryKey=\"id\">",
+                "        <column desc=\"id\" name=\"id\" type=\"int\"/>",
+                "        <column desc=\"items\" name=\"itemList\" ref=\"item\" type=\"list,int,2\"/>",
+                "        <foreignKey keys=\"id\" name=\"members\" ref=\"item,grp\" refType=\"LIST\"/>",
+                "    </table>",
+                "    <table name=\"box\" primaryKey=\"id\">",
+                "        <column desc=\"id\" name=\"id\" type=\"int\"/>",
+                "        <column desc=\"bagid\" name=\"bagid\" ref=\"bag\" type=\"int\"/>",
+                "    </table>",
+                "    <table name=\"item\" primaryKey=\"id\">",
+                "        <column desc=\"id\" name=\"id\" type=\"int\"/>",
+                "        <column desc=\"grp\" name=\"grp\" type=\"int\"/>",
+                "        <column desc=\"count\" name=\"count\" type=\"int\"/>",
+                "    </table>",
+                "</db>");
+        write(data.resolve("bag.csv"), "id,items,", "id,item1,item2", "1,1,2", "2,2,3");
+        write(data.resolve("box.csv"), "id,bagid", "id,bagid", "1,1");
+        writeItems(0);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (loader != null) {
+            loader.close();
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Test
+    public void reloadTwiceKeepsRefsAndOldUntouched() throws Exception {
+        gen("-gen", "java,dir:" + dir.resolve("java"), "-gen", "javadata,file:" + dir.resolve("v0.data"));
+        writeItems(1);
+        gen("-gen", "javadata,file:" + dir.resolve("v1.data") + ",prev:" + dir.resolve("v0.data") + ",delta:" + dir.resolve("d1.data"));
+        writeItems(2);
+        gen("-gen", "javadata,file:" + dir.resolve("v2.data") + ",prev:" + dir.resolve("v1.data") + ",delta:" + dir.resolve("d2.data"));
+        compile();
+
+        Class<?> mgrClass = loader.loadClass("config.ConfigMgr");
+        Class<?> loaderClass = loader.loadClass("config.ConfigMgrLoader");
+        Object mgr = loaderClass.getMethod("load", ConfigInput.class).invoke(null, open("v0.data"));
+        Object oldBag = setMgrAndGet(mgrClass, mgr, "Bag", 1);
+        List<?> oldRefs = new ArrayList<>((List<?>) call(oldBag, "refItemList"));
+
+        for (int round = 1; round <= 2; round++) {
+            Object old = mgr;
+            mgr = loaderClass.getMethod("reload", mgrClass, ConfigInput.class).invoke(null, old, open("d" + round + ".data"));
+            Object bag = setMgrAndGet(mgrClass, mgr, "Bag", 1);
+            List<?> refs = (List<?>) call(bag, "refItemList");
+            assertEquals(2, refs.size());
+            assertEquals(2, ((List<?>) call(bag, "listRefMembers")).size());
+            assertSame(get("Item", 1), refs.get(0));
+            assertEquals(round, call(refs.get(0), "getCount"));
+            assertSame(bag, call(get("Box", 1), "refBagid"));
+        }
+
+        assertNotSame(oldBag, get("Bag", 1));
+        assertEquals(oldRefs, call(oldBag, "refItemList"));
+        assertEquals(0, call(((List<?>) call(oldBag, "refItemList")).get(0), "getCount"));
+    }
+
+    private void writeItems(int count) throws IOException {
+        write(dir.resolve("data").resolve("item.csv"), "id,grp,count", "id,grp,count",
+                "1,1," + count, "2,1," + count, "3,2," + count);
+    }
+
+    private static void write(Path file, String... lines) throws IOException {
+        Files.write(file, (String.join("\r\n", lines) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void gen(String... gens) throws Exception {
+        List<String> args = new ArrayList<>();
+        args.add("-datadir");
+        args.add(dir.resolve("data").toString());
+        for (String g : gens) {
+            args.add(g);
+        }
+        Main.main(args.toArray(new String[0]));
+    }
+
+    private void compile() throws IOException {
+        Path classes = Files.createDirectory(dir.resolve("classes"));
+        List<String> args = new ArrayList<>();
+        args.add("-nowarn");
+        args.add("-encoding");
+        args.add("UTF-8");
+        args.add("-d");
+        args.add(classes.toString());
+        args.add("-cp");
+        args.add(new File(ConfigInput.class.getProtectionDomain().getCodeSource().getLocation().getPath()).toString());
+        args.add("-sourcepath");
+        args.add("src");
+        try (Stream<Path> files = Files.walk(dir.resolve("java"))) {
+            files.filter(p -> p.toString().endsWith(".java")).forEach(p -> args.add(p.toString()));
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, args.toArray(new String[0])));
+        loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, getClass().getClassLoader());
+    }
+
+    private ConfigInput open(String file) throws IOException {
+        ConfigInput input = new ConfigInput(new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(dir.resolve(file)))));
+        Schema.create(input);
+        return input;
+    }
+
+    private Object setMgrAndGet(Class<?> mgrClass, Object mgr, String table, int id) throws Exception {
+        mgrClass.getMethod("setMgr", mgrClass).invoke(null, mgr);
+        return get(table, id);
+    }
+
+    private Object get(String table, int id) throws Exception {
+        Method get = loader.loadClass("config." + table).getMethod("get", int.class);
+        return get.invoke(null, id);
+    }
+
+    private static Object call(Object o, String method) throws Exception {
+        return o.getClass().getMethod(method).invoke(o);
+    }
+}
@@ -21,8 +21,20 @@ public interface Schema {
     int INTERFACE = 10;
     int ENUM = 11;
 
+    /**
+     * 非默认格式的文件头，后接format，老格式第一个int是schema的tag，不会是这个值
+     */
+    int FORMAT = 0x43504354;
+    int FORMAT_VARINT = 1;
+    int FORMAT_STRING_POOL = 2;
+    int FORMAT_DIRECTORY = 4;
+
     static Schema create(ConfigInput input) {
         int tag = input.readInt();
+        if (tag == FORMAT && input.getFormat() == 0) {
+            input.startFormat(input.readInt());
+            tag = input.readInt();
+        }
         switch (tag) {
             case BOOL:
                 return SchemaPrimitive.SBool;
@@ -0,0 +1,62 @@
+package configgen.genjava;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * isPrimaryKeySeq的表，主键是1,2,3...，直接按下标存数组，get不装箱也不算hash。
+ * 生成的ConfigMgr里替代LinkedHashMap，put和get的写法一样
+ */
+public final class SeqStore<T> {
+    private Object[] values = new Object[16];
+    private int size;
+    private final List<T> view = new AbstractList<T>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index >= size) {
+                throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+            }
+            return (T) values[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    };
+
+    /**
+     * 只能按1,2,3...的顺序加
+     */
+    public void put(int id, T value) {
+        if (id != size + 1) {
+            throw new IllegalStateException("primary key " + id + " not seq, expected " + (size + 1));
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int id) {
+        int index = id - 1;
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        return (T) values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 按主键顺序，不可修改
+     */
+    public List<T> values() {
+        return view;
+    }
+}
@@ -0,0 +1,39 @@
+package configgen.genjava;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SeqStoreTest {
+
+    @Test
+    public void getByIdAndValuesInOrder() {
+        SeqStore<String> seq = new SeqStore<>();
+        for (int i = 1; i <= 20; i++) {
+            seq.put(i, "s" + i);
+        }
+        assertEquals(20, seq.size());
+        assertEquals("s1", seq.get(1));
+        assertEquals("s20", seq.get(20));
+        assertNull(seq.get(0));
+        assertNull(seq.get(-1));
+        assertNull(seq.get(21));
+        assertEquals(20, seq.values().size());
+        assertEquals("s17", seq.values().get(16));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsGap() {
+        SeqStore<String> seq = new SeqStore<>();
+        seq.put(1, "a");
+        seq.put(3, "b");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void valuesUnmodifiable() {
+        SeqStore<String> seq = new SeqStore<>();
+        seq.put(1, "a");
+        seq.values().add("b");
+    }
+}
@@ -0,0 +1,93 @@
+package configgen.genjava;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * config.data的表目录，写在所有表之后，文件最后固定8字节是目录的位置和Schema.FORMAT。
+ * 每个表记录数据在文件里的位置，长度和crc32，用ByteBufferConfigInput可以直接跳到要的表
+ */
+public class TableDirectory {
+
+    public static class Entry {
+        public final String name;
+        public final int offset;
+        public final int length;
+        public final int checksum;
+
+        public Entry(String name, int offset, int length, int checksum) {
+            this.name = name;
+            this.offset = offset;
+            this.length = length;
+            this.checksum = checksum;
+        }
+
+        @Override
+        public String toString() {
+            return name + "(offset=" + offset + ", length=" + length + ")";
+        }
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    public TableDirectory() {
+    }
+
+    public TableDirectory(ConfigInput input) {
+        for (int c = input.readInt(); c > 0; c--) {
+            String name = input.readStr();
+            int offset = input.readInt();
+            int length = input.readInt();
+            int checksum = input.readInt();
+            add(new Entry(name, offset, length, checksum));
+        }
+    }
+
+    public void add(Entry entry) {
+        entries.put(entry.name, entry);
+    }
+
+    public Entry get(String name) {
+        return entries.get(name);
+    }
+
+    public Collection<Entry> getEntries() {
+        return entries.values();
+    }
+
+    /**
+     * 按base平移所有表的位置，写的时候表先写在内存里，位置要加上文件头的长度
+     */
+    public TableDirectory shift(int base) {
+        TableDirectory res = new TableDirectory();
+        for (Entry e : entries.values()) {
+            res.add(new Entry(e.name, e.offset + base, e.length, e.checksum));
+        }
+        return res;
+    }
+
+    public void write(ConfigOutput output) {
+        output.writeInt(entries.size());
+        for (Entry e : entries.values()) {
+            output.writeStr(e.name);
+            output.writeInt(e.offset);
+            output.writeInt(e.length);
+            output.writeInt(e.checksum);
+        }
+    }
+
+    public static int checksum(byte[] bytes, int off, int len) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, off, len);
+        return (int) crc.getValue();
+    }
+
+    public static int checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        return (int) crc.getValue();
+    }
+}
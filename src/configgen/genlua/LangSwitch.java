@@ -14,6 +14,7 @@ public class LangSwitch {
 
     static class Lang {
         I18n i18n;
+        I18n.TableI18n curTable;
         List<String> idToStr = new ArrayList<>();
 
         Lang(Path p) {
@@ -40,13 +41,13 @@ public class LangSwitch {
 
     public static void enterTable(String tableName) {
         for (Lang lang : langMap.values()) {
-            lang.i18n.enterTable(tableName);
+            lang.curTable = lang.i18n.forTable(tableName);
         }
     }
 
     public static int enterText(String raw) {
         for (Lang lang : langMap.values()) {
-            String t = lang.i18n.enterText(raw);
+            String t = lang.curTable.enterText(raw);
             lang.idToStr.add(t);
         }
         next++;
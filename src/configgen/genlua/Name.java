@@ -23,6 +23,14 @@ public class Name {
         return "getBy" + keys.keySet().stream().map(Generator::upper1).reduce("", (a, b) -> a + b);
     }
 
+    static String indexGetByName(Map<String, Type> keys) {
+        return "getAllBy" + keys.keySet().stream().map(Generator::upper1).reduce("", (a, b) -> a + b);
+    }
+
+    static String indexMapName(Map<String, Type> keys) {
+        return keys.keySet().stream().map(Generator::upper1).reduce("", (a, b) -> a + b) + "Index";
+    }
+
     static String uniqueKeyMapName(Map<String, Type> keys) {
         return keys.keySet().stream().map(Generator::upper1).reduce("", (a, b) -> a + b) + "Map";
     }
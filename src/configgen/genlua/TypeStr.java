@@ -9,7 +9,7 @@ import java.util.Map;
 
 class TypeStr {
 
-    // uniqkeys : {{allname=, getname=, keyidx1=, keyidx2=}, }
+    // uniqkeys : {{allname=, getname=, keyidx1=, keyidx2=, isindex=}, }，index的值是list
     static String getLuaUniqKeysString(TTable ttable) {
         StringBuilder sb = new StringBuilder();
         sb.append("{ ");
@@ -17,6 +17,9 @@ class TypeStr {
         for (Map<String, Type> uniqueKey : ttable.getUniqueKeys()) {
             sb.append(getLuaOneUniqKeyString(ttable, uniqueKey, false));
         }
+        for (Map<String, Type> index : ttable.getIndexes()) {
+            sb.append(getLuaOneKeyString(ttable, index, Name.indexMapName(index), Name.indexGetByName(index), true));
+        }
         sb.append("}");
         return sb.toString();
     }
@@ -24,6 +27,10 @@ class TypeStr {
     private static String getLuaOneUniqKeyString(TTable ttable, Map<String, Type> keys, boolean isPrimaryKey) {
         String allname = isPrimaryKey ? "all" : Name.uniqueKeyMapName(keys);
         String getname = isPrimaryKey ? "get" : Name.uniqueKeyGetByName(keys);
+        return getLuaOneKeyString(ttable, keys, allname, getname, false);
+    }
+
+    private static String getLuaOneKeyString(TTable ttable, Map<String, Type> keys, String allname, String getname, boolean isIndex) {
 
         Iterator<Type> it = keys.values().iterator();
         Type key1 = it.next();
@@ -40,7 +47,10 @@ class TypeStr {
             keyidx2 = key2.getColumnIndex() + 1;
         }
 
-        if (hasKeyIdx2) {
+        String k2 = hasKeyIdx2 ? String.valueOf(keyidx2) : "nil";
+        if (isIndex) {
+            return String.format("{ \"%s\", \"%s\", %d, %s, true }, ", allname, getname, keyidx1, k2);
+        } else if (hasKeyIdx2) {
             return String.format("{ \"%s\", \"%s\", %d, %d }, ", allname, getname, keyidx1, keyidx2);
         } else {
             return String.format("{ \"%s\", \"%s\", %d }, ", allname, getname, keyidx1);
@@ -95,6 +95,40 @@ public class TBean extends Type {
         return childDynamicBeans.get(name);
     }
 
+    void collectRefTables(Set<TTable> refTables, Set<TBean> visited) {
+        if (!visited.add(this)) {
+            return;
+        }
+        if (childDynamicBeanEnumRefTable != null) {
+            refTables.add(childDynamicBeanEnumRefTable);
+        }
+        for (TBean child : childDynamicBeans.values()) {
+            child.collectRefTables(refTables, visited);
+        }
+        for (TForeignKey fk : foreignKeys) {
+            if (fk.refTable != null) {
+                refTables.add(fk.refTable);
+            }
+            if (fk.mapKeyRefTable != null) {
+                refTables.add(fk.mapKeyRefTable);
+            }
+        }
+        for (Type column : columns.values()) {
+            collectRefTables(column, refTables, visited);
+        }
+    }
+
+    private static void collectRefTables(Type type, Set<TTable> refTables, Set<TBean> visited) {
+        if (type instanceof TBeanRef) {
+            ((TBeanRef) type).tBean.collectRefTables(refTables, visited);
+        } else if (type instanceof TList) {
+            collectRefTables(((TList) type).value, refTables, visited);
+        } else if (type instanceof TMap) {
+            collectRefTables(((TMap) type).key, refTables, visited);
+            collectRefTables(((TMap) type).value, refTables, visited);
+        }
+    }
+
     @Override
     public String fullName() {
         if (parent instanceof TTable) {
@@ -105,23 +139,28 @@ public class TBean extends Type {
     }
 
 
+    // 多个表并行构造数据时会同时调用，计算共用checking防递归，所以统一在root上加锁算一次
     private boolean _hasRef = false;
-    private boolean _hasRefChecked = false;
+    private volatile boolean _hasRefChecked = false;
 
     private boolean _hasSubBean = false;
-    private boolean _hasSubBeanChecked = false;
+    private volatile boolean _hasSubBeanChecked = false;
 
     private boolean _hasText = false;
-    private boolean _hasTextChecked = false;
+    private volatile boolean _hasTextChecked = false;
 
     private int _columnSpan = 0;
-    private boolean _hasColumnSpanChecked = false;
+    private volatile boolean _hasColumnSpanChecked = false;
 
     @Override
     public boolean hasRef() {
         if (!_hasRefChecked) {
-            _hasRef = checkHasRef();
-            _hasRefChecked = true;
+            synchronized (root) {
+                if (!_hasRefChecked) {
+                    _hasRef = checkHasRef();
+                    _hasRefChecked = true;
+                }
+            }
         }
         return _hasRef;
 
@@ -130,8 +169,12 @@ public class TBean extends Type {
     @Override
     public boolean hasSubBean() {
         if (!_hasSubBeanChecked) {
-            _hasSubBean = checkHasSubBean();
-            _hasSubBeanChecked = true;
+            synchronized (root) {
+                if (!_hasSubBeanChecked) {
+                    _hasSubBean = checkHasSubBean();
+                    _hasSubBeanChecked = true;
+                }
+            }
         }
         return _hasSubBean;
     }
@@ -139,8 +182,12 @@ public class TBean extends Type {
     @Override
     public boolean hasText() {
         if (!_hasTextChecked) {
-            _hasText = checkHasText();
-            _hasTextChecked = true;
+            synchronized (root) {
+                if (!_hasTextChecked) {
+                    _hasText = checkHasText();
+                    _hasTextChecked = true;
+                }
+            }
         }
         return _hasText;
     }
@@ -148,8 +195,12 @@ public class TBean extends Type {
     @Override
     public int columnSpan() {
         if (!_hasColumnSpanChecked) {
-            _columnSpan = checkColumnSpan();
-            _hasColumnSpanChecked = true;
+            synchronized (root) {
+                if (!_hasColumnSpanChecked) {
+                    _columnSpan = checkColumnSpan();
+                    _hasColumnSpanChecked = true;
+                }
+            }
         }
         return _columnSpan;
     }
@@ -253,6 +304,10 @@ public class TBean extends Type {
             for (Type columnType : columns.values()) {
                 Column column = beanDefine.columns.get(columnType.name);
                 resolveColumnConstraint(columnType, column);
+                if (column.rangeIndex) {
+                    require(beanDefine.type == Bean.BeanType.Table, "rangeIndex只能配在表的列上", column.name);
+                    require(columnType instanceof TInt || columnType instanceof TLong || columnType instanceof TFloat, "rangeIndex列必须是int,long或float", column.name);
+                }
             }
 
             require(columns.size() > 0, "Bean列数不能为0");
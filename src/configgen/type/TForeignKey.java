@@ -3,9 +3,6 @@ package configgen.type;
 import configgen.Node;
 import configgen.define.ForeignKey;
 import configgen.define.Ref;
-import configgen.value.Value;
-
-import java.util.Set;
 
 public class TForeignKey extends Node {
     public final ForeignKey foreignKeyDefine;
@@ -14,7 +11,6 @@ public class TForeignKey extends Node {
 
     public Type[] thisTableKeys;
 
-    public Set<Value> cache;  //优化
 
     TForeignKey(TBean parent, ForeignKey fk) {
         super(parent, fk.name);
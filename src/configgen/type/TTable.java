@@ -2,13 +2,17 @@ package configgen.type;
 
 import configgen.Logger;
 import configgen.Node;
+import configgen.define.Index;
 import configgen.define.Table;
 import configgen.define.UniqueKey;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class TTable extends Node {
     private final Table tableDefine;
@@ -18,6 +22,10 @@ public class TTable extends Node {
     //表可以有一个主键，多个唯一键
     private final Map<String, Type> primaryKey = new LinkedHashMap<>();
     private final List<Map<String, Type>> uniqueKeys = new ArrayList<>();
+    //非唯一的索引
+    private final List<Map<String, Type>> indexes = new ArrayList<>();
+    //配了rangeIndex的列
+    private final List<Type> rangeIndexes = new ArrayList<>();
 
 
     public TTable(TDb parent, Table cfg) {
@@ -46,6 +54,23 @@ public class TTable extends Node {
         return uniqueKeys;
     }
 
+    public List<Map<String, Type>> getIndexes() {
+        return indexes;
+    }
+
+    public List<Type> getRangeIndexes() {
+        return rangeIndexes;
+    }
+
+    /**
+     * 这个表的数据（包括嵌套的Bean）通过外键，多态Bean的枚举引用到的表，在resolve之后调用
+     */
+    public Set<TTable> getRefTables() {
+        Set<TTable> res = new LinkedHashSet<>();
+        tBean.collectRefTables(res, new HashSet<>());
+        return res;
+    }
+
     public void resolve() {
         tBean.resolve();
         if (tableDefine.enumType != Table.EnumType.None) {
@@ -71,6 +96,21 @@ public class TTable extends Node {
             resolveKey(uk.keys, res);
             uniqueKeys.add(res);
         }
+
+        for (Index idx : tableDefine.indexes.values()) {
+            Map<String, Type> res = new LinkedHashMap<>();
+            resolveKey(idx.keys, res);
+            for (Map.Entry<String, Type> e : res.entrySet()) {
+                require(e.getValue() instanceof TPrimitive, "index列必须是基本类型", idx, e.getKey());
+            }
+            indexes.add(res);
+        }
+
+        for (Type column : tBean.getColumns()) {
+            if (tableDefine.bean.columns.get(column.name).rangeIndex) {
+                rangeIndexes.add(column);
+            }
+        }
     }
 
     private void resolveKey(String[] keys, Map<String, Type> res) {
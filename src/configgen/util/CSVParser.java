@@ -1,9 +1,26 @@
 package configgen.util;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 //import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public final class CSVParser {
 
@@ -18,52 +35,184 @@ public final class CSVParser {
 
 
     public static List<List<String>> readFromFile(Path path, String encoding) {
+        ListSink sink = new ListSink();
+        readFromFile(path, encoding, sink);
+        sink.result.trimToSize();
+        return sink.result;
+    }
+
+    /**
+     * 读成列存储的CSVTable，整个表只有一个char[]，格子字符串在get时才构造
+     */
+    public static CSVTable readTableFromFile(Path path, String encoding) {
+        CSVTable.Builder builder;
         try {
-            //使用reader很费内存
-            //Reader reader = new UnicodeReader(new BufferedInputStream(new FileInputStream(file)), encoding)
-            int nread = FileReadUtils.readAllBytes(path);
-            byte[] buf = FileReadUtils.getBuf();
-
-            BomChecker.Res bom = BomChecker.checkBom(buf, nread, encoding);
-            String fileStr = new String(buf, bom.bomSize, nread - bom.bomSize, bom.encoding);
-            return parse(fileStr);
-        } catch (Exception e) {
+            builder = new CSVTable.Builder((int) Math.min(Files.size(path), Integer.MAX_VALUE - 8));
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        readFromFile(path, encoding, builder);
+        return builder.build();
     }
 
+    public interface RecordVisitor {
+        /**
+         * @param row    从0开始的行号
+         * @param record 复用的，visit返回后就会被改写，要保留请复制；空行时是isEmptyRecord标记
+         */
+        void visit(int row, List<String> record);
+    }
 
-    private static ArrayList<String> emptyRecord = new ArrayList<>();
-    private static StringBuilder field = new StringBuilder(128); //这里假设是单线程
+    /**
+     * 流式读取，每行回调一次，不会把整个文件或所有行都放在内存里
+     */
+    public static void readFromFile(Path path, String encoding, RecordVisitor visitor) {
+        readFromFile(path, encoding, new RecordSink(visitor));
+    }
+
+    public static void parse(String source, RecordVisitor visitor) {
+        parse(source, new RecordSink(visitor));
+    }
+
+    private static boolean mmapEnabled = false;
+    private static final Set<String> byteLevelCharsets = new HashSet<>(Arrays.asList("UTF-8", "GBK", "GB2312", "GB18030"));
+
+    /**
+     * csv文件用内存映射，在字节上解析，只对UTF-8，GBK编码生效，其他编码仍用reader。
+     * 映射的文件在gc回收前不释放，windows下这期间文件不能被覆盖保存
+     */
+    public static void enableMmap() {
+        mmapEnabled = true;
+    }
+
+    private static void readFromFile(Path path, String encoding, Sink sink) {
+        if (mmapEnabled && readMapped(path, encoding, sink)) {
+            return;
+        }
+        //使用reader很费内存，这里只用一个固定大小的char[]分块读
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            byte[] head = new byte[4];
+            in.mark(head.length);
+            int n = 0;
+            for (int r; n < head.length && (r = in.read(head, n, head.length - n)) > 0; ) {
+                n += r;
+            }
+            in.reset();
+            BomChecker.Res bom = BomChecker.checkBom(head, n, encoding);
+            for (long skip = bom.bomSize; skip > 0; ) {
+                skip -= in.skip(skip);
+            }
+
+            Reader reader = new InputStreamReader(in, bom.encoding);
+            Machine machine = new CharMachine(sink);
+            char[] chunk = new char[8192];
+            for (int len; (len = reader.read(chunk)) != -1; ) {
+                for (int i = 0; i < len; i++) {
+                    machine.accept(chunk[i]);
+                }
+            }
+            machine.end();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 不能按字节解析时返回false，不读sink
+     */
+    static boolean readMapped(Path path, String encoding, Sink sink) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return false;
+            }
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            byte[] head = new byte[4];
+            int n = (int) Math.min(head.length, size);
+            buf.get(head, 0, n);
+            BomChecker.Res bom = BomChecker.checkBom(head, n, encoding);
+            Charset charset = Charset.forName(bom.encoding);
+            if (!byteLevelCharsets.contains(charset.name())) {
+                return false;
+            }
+
+            ByteMachine machine = new ByteMachine(sink, charset);
+            int len = (int) size;
+            for (int i = bom.bomSize; i < len; i++) {
+                machine.accept(buf.get(i) & 0xFF);
+            }
+            machine.end();
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    interface Sink {
+        void field(CharSequence field);
+
+        void record();
+    }
+
+    private static final ArrayList<String> emptyRecord = new ArrayList<>();
 
-    //https://tools.ietf.org/html/rfc4180
     public static List<List<String>> parse(String source) {
-        ArrayList<List<String>> result = new ArrayList<>();
-        ArrayList<String> record = new ArrayList<>();
-        State state = State.START;
+        ListSink sink = new ListSink();
+        parse(source, sink);
+        sink.result.trimToSize();
+        return sink.result;
+    }
 
-        field.setLength(0);
+    public static CSVTable parseTable(String source) {
+        CSVTable.Builder builder = new CSVTable.Builder(source.length());
+        parse(source, builder);
+        return builder.build();
+    }
 
+    private static void parse(String source, Sink sink) {
+        Machine machine = new CharMachine(sink);
         for (int i = 0; i < source.length(); i++) {
-            char c = source.charAt(i);
+            machine.accept(source.charAt(i));
+        }
+        machine.end();
+    }
+
+    //https://tools.ietf.org/html/rfc4180
+    //状态机只认, " \r \n 这4个ascii，char和byte共用，field的存储由子类决定
+    private static abstract class Machine {
+        final Sink sink;
+        private State state = State.START;
+        private boolean hasField = false; //当前record是否已有field
+
+        Machine(Sink sink) {
+            this.sink = sink;
+        }
+
+        abstract void clearField();
+
+        abstract void appendField(int c);
 
+        abstract void emitField();
+
+        void accept(int c) {
             switch (state) {
                 case START:
                     switch (c) {
                         case comma:
-                            record.add("");
+                            sink.field("");
+                            hasField = true;
                             break;
                         case quote:
-                            field.setLength(0);
+                            clearField();
                             state = State.QUOTE;
                             break;
                         case cr:
-                            field.setLength(0);
+                            clearField();
                             state = State.CR;
                             break;
                         default:
-                            field.setLength(0);
-                            field.append(c);
+                            clearField();
+                            appendField(c);
                             state = State.NO_QUOTE;
                             break;
                     }
@@ -72,14 +221,15 @@ public final class CSVParser {
                 case NO_QUOTE:
                     switch (c) {
                         case comma:
-                            addField(record, field);
+                            emitField();
+                            hasField = true;
                             state = State.START;
                             break;
                         case cr:
                             state = State.CR;
                             break;
                         default:
-                            field.append(c);
+                            appendField(c);
                             break;
                     }
                     break;
@@ -90,7 +240,7 @@ public final class CSVParser {
                             state = State.QUOTE2;
                             break;
                         default:
-                            field.append(c);
+                            appendField(c);
                             break;
                     }
                     break;
@@ -98,18 +248,19 @@ public final class CSVParser {
                 case QUOTE2:
                     switch (c) {
                         case comma:
-                            addField(record, field);
+                            emitField();
+                            hasField = true;
                             state = State.START;
                             break;
                         case quote:
-                            field.append(quote);
+                            appendField(quote);
                             state = State.QUOTE;
                             break;
                         case cr:
                             state = State.CR;
                             break;
                         default:
-                            field.append(c); //忽略了"，
+                            appendField(c); //忽略了"，
                             state = State.NO_QUOTE;
                             break;
                     }
@@ -118,20 +269,20 @@ public final class CSVParser {
                 case CR:
                     switch (c) {
                         case comma:
-                            field.append(cr);
-                            addField(record, field);
+                            appendField(cr);
+                            emitField();
+                            hasField = true;
                             state = State.START;
                             break;
                         case lf:
-                            addField(record, field);
-                            addRecord(result, record);
-
-                            record = new ArrayList<>(record.size()); //优化下存储
+                            emitField();
+                            sink.record();
+                            hasField = false;
                             state = State.START;
                             break;
                         default:
-                            field.append(cr);
-                            field.append(c);
+                            appendField(cr);
+                            appendField(c);
                             state = State.NO_QUOTE;
                             break;
                     }
@@ -139,31 +290,152 @@ public final class CSVParser {
             }
         }
 
-        switch (state) {
-            case START:
-                if (!record.isEmpty()) {
-                    record.add("");
-                    addRecord(result, record);
+        void end() {
+            switch (state) {
+                case START:
+                    if (hasField) {
+                        sink.field("");
+                        sink.record();
+                    }
+                    break;
+                case CR:
+                    appendField(cr);
+                    emitField();
+                    sink.record();
+                    break;
+                default:
+                    emitField();
+                    sink.record();
+                    break;
+            }
+        }
+    }
+
+    private static final class CharMachine extends Machine {
+        private final StringBuilder field = new StringBuilder(128); //每次parse一个，可多线程同时parse
+
+        CharMachine(Sink sink) {
+            super(sink);
+        }
+
+        @Override
+        void clearField() {
+            field.setLength(0);
+        }
+
+        @Override
+        void appendField(int c) {
+            field.append((char) c);
+        }
+
+        @Override
+        void emitField() {
+            sink.field(field);
+        }
+    }
+
+    /**
+     * 直接在字节上跑状态机，只适用于分隔符不会出现在多字节字符中间的编码（UTF-8，GBK），
+     * 每个field只在交给sink时才解码，纯ascii的field不走decoder
+     */
+    private static final class ByteMachine extends Machine {
+        private final CharsetDecoder decoder;
+        private byte[] field = new byte[256];
+        private int fieldLen;
+        private CharBuffer chars = CharBuffer.allocate(256);
+
+        ByteMachine(Sink sink, Charset charset) {
+            super(sink);
+            decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        @Override
+        void clearField() {
+            fieldLen = 0;
+        }
+
+        @Override
+        void appendField(int c) {
+            if (fieldLen == field.length) {
+                field = Arrays.copyOf(field, field.length * 2);
+            }
+            field[fieldLen++] = (byte) c;
+        }
+
+        @Override
+        void emitField() {
+            if (chars.capacity() < fieldLen) {
+                chars = CharBuffer.allocate(Math.max(fieldLen, chars.capacity() * 2));
+            }
+            chars.clear();
+            boolean ascii = true;
+            for (int i = 0; i < fieldLen; i++) {
+                if (field[i] < 0) {
+                    ascii = false;
+                    break;
+                }
+            }
+            if (ascii) {
+                for (int i = 0; i < fieldLen; i++) {
+                    chars.put((char) field[i]);
                 }
-                break;
-            case CR:
-                field.append(cr);
-                addField(record, field);
-                addRecord(result, record);
-                break;
-            default:
-                addField(record, field);
-                addRecord(result, record);
-                break;
+            } else {
+                //UTF-8，GBK解码出的char数不会多于字节数
+                decoder.reset();
+                decoder.decode(ByteBuffer.wrap(field, 0, fieldLen), chars, true);
+                decoder.flush(chars);
+            }
+            chars.flip();
+            sink.field(chars);
+        }
+    }
+
+    private static final class RecordSink implements Sink {
+        private final RecordVisitor visitor;
+        private final ArrayList<String> record = new ArrayList<>();
+        private int row = 0;
+
+        RecordSink(RecordVisitor visitor) {
+            this.visitor = visitor;
+        }
+
+        @Override
+        public void field(CharSequence field) {
+            record.add(toFieldString(field));
+        }
+
+        @Override
+        public void record() {
+            visitor.visit(row++, checkRecordHasContent(record) ? record : emptyRecord);
+            record.clear();
+        }
+    }
+
+    static final class ListSink implements Sink {
+        final ArrayList<List<String>> result = new ArrayList<>();
+        ArrayList<String> record = new ArrayList<>();
+
+        @Override
+        public void field(CharSequence field) {
+            record.add(toFieldString(field));
         }
 
-        result.trimToSize();
-        return result;
+        @Override
+        public void record() {
+            if (checkRecordHasContent(record)) {
+                result.add(record);
+            } else {
+                result.add(emptyRecord); //作为空行标记
+            }
+            record = new ArrayList<>(record.size()); //优化下存储
+        }
     }
 
 //    private static HashMap<String, String> stringCache = new HashMap<>(1024);
 
-    private static void addField(ArrayList<String> record, StringBuilder field) {
+    static String toFieldString(CharSequence field) {
         String s = field.toString();
 
         if (s.length() < 5) {//与速度和内存间取个平衡吧
@@ -176,15 +448,7 @@ public final class CSVParser {
 
             s = s.intern();
         }
-        record.add(s);
-    }
-
-    private static void addRecord(ArrayList<List<String>> result, ArrayList<String> record) {
-        if (!checkRecordHasContent(record)) {
-            record = emptyRecord; //作为空行标记
-        }
-
-        result.add(record);
+        return s;
     }
 
     private static boolean checkRecordHasContent(List<String> record) {
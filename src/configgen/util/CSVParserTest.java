@@ -2,9 +2,14 @@ package configgen.util;
 
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 
 public class CSVParserTest {
@@ -42,6 +47,49 @@ public class CSVParserTest {
         testOneLine("\"aa\"123, bb", "aa123", " bb");
     }
 
+    @Test
+    public void parseTable_SameAsParse() {
+        String[] sources = {"aa, bb", "aa, bb,\r\n,,\r\ncc,\"dd", "aa,\"bb\r\ncc\",dd\r\n", "a\r\nb,c,d\r\n\r\ne", ""};
+        for (String source : sources) {
+            List<List<String>> r = CSVParser.parse(source);
+            CSVTable t = CSVParser.parseTable(source);
+            assertEquals(r.size(), t.getRowCount());
+            for (int i = 0; i < r.size(); i++) {
+                assertEquals(CSVParser.isEmptyRecord(r.get(i)), t.isEmptyRow(i));
+                assertEquals(r.get(i), t.getRow(i));
+            }
+        }
+    }
+
+    @Test
+    public void parseWithVisitor_SameAsParse() {
+        String source = "aa, bb,\r\n,,\r\ncc,\"d\r\nd\"\r\n";
+        List<List<String>> r = CSVParser.parse(source);
+        List<List<String>> v = new ArrayList<>();
+        CSVParser.parse(source, (row, record) -> {
+            assertEquals(v.size(), row);
+            v.add(CSVParser.isEmptyRecord(record) ? record : new ArrayList<>(record));
+        });
+        assertEquals(r, v);
+        assertTrue(CSVParser.isEmptyRecord(v.get(1)));
+    }
+
+    @Test
+    public void readMapped_SameAsParse() throws IOException {
+        String source = "名字,\"引\"\"号\"\r\n,,\r\n中文,\"换\r\n行\"\r\n";
+        for (String encoding : new String[]{"UTF-8", "GBK"}) {
+            Path tmp = Files.createTempFile("csvparser", ".csv");
+            try {
+                Files.write(tmp, source.getBytes(encoding));
+                CSVParser.ListSink sink = new CSVParser.ListSink();
+                assertTrue(CSVParser.readMapped(tmp, encoding, sink));
+                assertEquals(CSVParser.parse(source), sink.result);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
     private void testOneLine(String source, String... row) {
         test(source, 1, 0, row);
     }
@@ -0,0 +1,210 @@
+package configgen.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * csv的列存储：整个表的格子内容顺序放在一个char[]里，每列一个start，一个end的int[]，
+ * 格子的String在get时才构造，避免List<List<String>>每行一个ArrayList，每格一个String的内存开销
+ */
+public final class CSVTable {
+    private final char[] chars;
+    private final int rowCount;
+    private final int[][] starts; // [col][row]，-1表示这行没有这列
+    private final int[][] ends;
+    private final BitSet emptyRows;
+
+    private CSVTable(char[] chars, int rowCount, int[][] starts, int[][] ends, BitSet emptyRows) {
+        this.chars = chars;
+        this.rowCount = rowCount;
+        this.starts = starts;
+        this.ends = ends;
+        this.emptyRows = emptyRows;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return starts.length;
+    }
+
+    /**
+     * 所有格子都为空的行，对应CSVParser.isEmptyRecord
+     */
+    public boolean isEmptyRow(int row) {
+        return emptyRows.get(row);
+    }
+
+    public int getRowSize(int row) {
+        if (emptyRows.get(row)) {
+            return 0;
+        }
+        int size = 0;
+        for (int c = 0; c < starts.length; c++) {
+            if (starts[c][row] != -1) {
+                size = c + 1;
+            }
+        }
+        return size;
+    }
+
+    public String get(int row, int col) {
+        int start = -1;
+        if (col < starts.length) {
+            start = starts[col][row];
+        }
+        if (start == -1 || emptyRows.get(row)) {
+            throw new IndexOutOfBoundsException("row=" + row + ",col=" + col);
+        }
+        return CSVParser.toFieldString(new String(chars, start, ends[col][row] - start));
+    }
+
+    public List<String> getRow(int row) {
+        int size = getRowSize(row);
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        List<String> res = new ArrayList<>(size);
+        for (int c = 0; c < size; c++) {
+            res.add(get(row, c));
+        }
+        return res;
+    }
+
+    /**
+     * 二进制快照，给CSVTableCache用。每列只存在的格子写start和长度，缺失的格子写-1
+     */
+    void write(DataOutputStream out) throws IOException {
+        byte[] bytes = new String(chars).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(chars.length);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.writeInt(rowCount);
+        out.writeInt(starts.length);
+        for (int c = 0; c < starts.length; c++) {
+            for (int r = 0; r < rowCount; r++) {
+                int start = starts[c][r];
+                out.writeInt(start);
+                if (start != -1) {
+                    out.writeInt(ends[c][r] - start);
+                }
+            }
+        }
+        long[] empty = emptyRows.toLongArray();
+        out.writeInt(empty.length);
+        for (long e : empty) {
+            out.writeLong(e);
+        }
+    }
+
+    static CSVTable read(DataInputStream in) throws IOException {
+        int charCount = in.readInt();
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        char[] chars = new String(bytes, StandardCharsets.UTF_8).toCharArray();
+        if (chars.length != charCount) {
+            throw new IOException("char count mismatch");
+        }
+        int rowCount = in.readInt();
+        int columnCount = in.readInt();
+        int[][] starts = new int[columnCount][rowCount];
+        int[][] ends = new int[columnCount][rowCount];
+        for (int c = 0; c < columnCount; c++) {
+            for (int r = 0; r < rowCount; r++) {
+                int start = in.readInt();
+                starts[c][r] = start;
+                ends[c][r] = start == -1 ? -1 : start + in.readInt();
+            }
+        }
+        long[] empty = new long[in.readInt()];
+        for (int i = 0; i < empty.length; i++) {
+            empty[i] = in.readLong();
+        }
+        return new CSVTable(chars, rowCount, starts, ends, BitSet.valueOf(empty));
+    }
+
+    static final class Builder implements CSVParser.Sink {
+        private char[] chars;
+        private int charCount;
+        private int rowCapacity = 64;
+        private int rowCount;
+        private int[][] starts = new int[0][];
+        private int[][] ends = new int[0][];
+        private final BitSet emptyRows = new BitSet();
+        private int col;
+        private boolean rowHasContent;
+
+        Builder(int charCapacity) {
+            chars = new char[Math.max(charCapacity, 16)];
+        }
+
+        @Override
+        public void field(CharSequence field) {
+            if (col == starts.length) {
+                addColumn();
+            }
+            int len = field.length();
+            if (charCount + len > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + len));
+            }
+            starts[col][rowCount] = charCount;
+            for (int i = 0; i < len; i++) {
+                chars[charCount++] = field.charAt(i);
+            }
+            ends[col][rowCount] = charCount;
+            if (len > 0) {
+                rowHasContent = true;
+            }
+            col++;
+        }
+
+        @Override
+        public void record() {
+            if (!rowHasContent) {
+                emptyRows.set(rowCount);
+            }
+            rowCount++;
+            col = 0;
+            rowHasContent = false;
+            if (rowCount == rowCapacity) {
+                rowCapacity *= 2;
+                for (int c = 0; c < starts.length; c++) {
+                    starts[c] = grow(starts[c], rowCapacity);
+                    ends[c] = grow(ends[c], rowCapacity);
+                }
+            }
+        }
+
+        private void addColumn() {
+            int n = starts.length;
+            starts = Arrays.copyOf(starts, n + 1);
+            ends = Arrays.copyOf(ends, n + 1);
+            starts[n] = grow(new int[0], rowCapacity);
+            ends[n] = grow(new int[0], rowCapacity);
+        }
+
+        private static int[] grow(int[] a, int capacity) {
+            int old = a.length;
+            int[] res = Arrays.copyOf(a, capacity);
+            Arrays.fill(res, old, capacity, -1);
+            return res;
+        }
+
+        CSVTable build() {
+            for (int c = 0; c < starts.length; c++) {
+                starts[c] = Arrays.copyOf(starts[c], rowCount);
+                ends[c] = Arrays.copyOf(ends[c], rowCount);
+            }
+            return new CSVTable(Arrays.copyOf(chars, charCount), rowCount, starts, ends, emptyRows);
+        }
+    }
+}
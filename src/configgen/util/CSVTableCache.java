@@ -0,0 +1,115 @@
+package configgen.util;
+
+import configgen.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * 解析后CSVTable的磁盘缓存，每个csv对应cacheDir下一个快照文件。
+ * 文件大小和修改时间都没变直接用快照；修改时间变了但大小和内容hash没变（比如svn/git重新checkout）也用快照；
+ * 否则重新解析并覆盖快照。快照损坏了就当没有。
+ */
+public final class CSVTableCache {
+    private static final int MAGIC = 0x43535643; // CSVC
+    private static final int VERSION = 1;
+
+    private final Path cacheDir;
+
+    public CSVTableCache(Path cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * @param key csv相对数据目录的路径，决定快照文件位置，要唯一。可多线程同时读不同的key
+     */
+    public CSVTable readTableFromFile(Path file, String key, String encoding) {
+        Path snapshot = cacheDir.resolve(key + ".bin");
+        try {
+            long size = Files.size(file);
+            long mtime = Files.getLastModifiedTime(file).toMillis();
+            byte[] hash = null;
+            CSVTable table = null;
+
+            if (Files.isRegularFile(snapshot)) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+                    if (in.readInt() == MAGIC && in.readInt() == VERSION
+                            && in.readUTF().equals(encoding) && in.readLong() == size) {
+                        long cachedMtime = in.readLong();
+                        byte[] cachedHash = new byte[in.readUnsignedByte()];
+                        in.readFully(cachedHash);
+                        if (cachedMtime == mtime) {
+                            return CSVTable.read(in);
+                        }
+                        hash = hash(file);
+                        if (Arrays.equals(hash, cachedHash)) {
+                            table = CSVTable.read(in); //下面重写快照，更新修改时间
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    Logger.verbose("csv cache " + snapshot + " broken, reparse: " + e);
+                    table = null;
+                }
+            }
+
+            if (table == null) {
+                //hash在解析前算，解析期间文件若被改了，下次hash对不上会重新解析
+                if (hash == null) {
+                    hash = hash(file);
+                }
+                table = CSVParser.readTableFromFile(file, encoding);
+            }
+            write(snapshot, encoding, size, mtime, hash, table);
+            return table;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void write(Path snapshot, String encoding, long size, long mtime, byte[] hash, CSVTable table) {
+        Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(snapshot.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(encoding);
+                out.writeLong(size);
+                out.writeLong(mtime);
+                out.writeByte(hash.length);
+                out.write(hash);
+                table.write(out);
+            }
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            //缓存写不了不影响生成
+            Logger.log("write csv cache " + snapshot + " err: " + e);
+        }
+    }
+
+    private static byte[] hash(Path file) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int n; (n = in.read(buf)) != -1; ) {
+                md.update(buf, 0, n);
+            }
+        }
+        return md.digest();
+    }
+}
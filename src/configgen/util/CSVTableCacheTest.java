@@ -0,0 +1,54 @@
+package configgen.util;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CSVTableCacheTest {
+
+    @Test
+    public void readFromCache_SameAsParse() throws IOException {
+        Path dir = Files.createTempDirectory("csvcache");
+        try {
+            Path csv = dir.resolve("a.csv");
+            CSVTableCache cache = new CSVTableCache(dir.resolve("cache"));
+            String source = "名字,\"x\r\ny\"\r\n,,\r\n1,2\r\n";
+            Files.write(csv, source.getBytes(StandardCharsets.UTF_8));
+
+            assertEquals(CSVParser.parse(source), rows(cache.readTableFromFile(csv, "a.csv", "UTF-8")));
+            assertTrue(Files.exists(dir.resolve("cache/a.csv.bin")));
+            CSVTable cached = cache.readTableFromFile(csv, "a.csv", "UTF-8");
+            assertEquals(CSVParser.parse(source), rows(cached));
+            assertTrue(cached.isEmptyRow(1));
+
+            // 大小不变，只改内容，修改时间变了靠hash发现
+            FileTime mtime = Files.getLastModifiedTime(csv);
+            String modified = source.replace("1,2", "3,4");
+            Files.write(csv, modified.getBytes(StandardCharsets.UTF_8));
+            Files.setLastModifiedTime(csv, FileTime.fromMillis(mtime.toMillis() + 1000));
+            assertEquals(CSVParser.parse(modified), rows(cache.readTableFromFile(csv, "a.csv", "UTF-8")));
+        } finally {
+            try (Stream<Path> s = Files.walk(dir)) {
+                for (Path p : s.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                    Files.delete(p);
+                }
+            }
+        }
+    }
+
+    private static List<List<String>> rows(CSVTable table) {
+        return IntStream.range(0, table.getRowCount()).mapToObj(table::getRow).collect(Collectors.toList());
+    }
+}
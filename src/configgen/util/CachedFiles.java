@@ -28,6 +28,10 @@ public class CachedFiles {
                 .forEach(f -> doRemoveFile(f, false));
         deleteKeepMetaFiles.stream().filter(File::exists)
                 .forEach(f -> doRemoveFile(f, true));
+        //watch模式下每轮生成都会调用，清掉本轮记录
+        filename_set.clear();
+        deleteFiles.clear();
+        deleteKeepMetaFiles.clear();
     }
 
     static void writeFile(Path path, byte[] data) throws IOException {
@@ -10,7 +10,8 @@ import java.util.Arrays;
 
 class FileReadUtils {
 
-    private static byte[] buf = new byte[512 * 1024];
+    //每个线程一个，DDb多线程读取csv时互不干扰
+    private static final ThreadLocal<byte[]> bufs = ThreadLocal.withInitial(() -> new byte[512 * 1024]);
     private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
     private static final int BUFFER_SIZE = 8192;
 
@@ -28,10 +29,11 @@ class FileReadUtils {
     }
 
     static byte[] getBuf() {
-        return buf;
+        return bufs.get();
     }
 
     private static int read(InputStream source) throws IOException {
+        byte[] buf = bufs.get();
         int capacity = buf.length;
         int nread = 0;
         int n;
@@ -55,6 +57,7 @@ class FileReadUtils {
                 capacity = MAX_BUFFER_SIZE;
             }
             buf = Arrays.copyOf(buf, capacity);
+            bufs.set(buf);
             buf[nread++] = (byte) n;
         }
         return nread;
@@ -5,7 +5,7 @@ import java.util.List;
 
 public class ListParser {
 
-    private static StringBuilder field = new StringBuilder(128); //这里假设是单线程
+    private static final ThreadLocal<StringBuilder> fields = ThreadLocal.withInitial(() -> new StringBuilder(128)); //多个表并行构造时用
 
     private enum ListState {
         START, NO_QUOTE, QUOTE, QUOTE2
@@ -14,6 +14,7 @@ public class ListParser {
     private static final char quote = '"';
 
     public static List<String> parseList(String str, char separator) {
+        StringBuilder field = fields.get();
         ListState state = ListState.START;
         ArrayList<String> list = new ArrayList<>();
         field.setLength(0);
@@ -0,0 +1,84 @@
+package configgen.util;
+
+/**
+ * long的开放寻址hash集合，线性探测，不装箱。int也可以放进来。
+ * 构造完只读时可以多线程同时contains
+ */
+public final class LongHashSet {
+    private long[] keys;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return 原来没有返回true
+     */
+    public boolean add(long key) {
+        int i = slot(key);
+        while (used[i]) {
+            if (keys[i] == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        used[i] = true;
+        size++;
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        int i = slot(key);
+        while (used[i]) {
+            if (keys[i] == key) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        keys = new long[oldKeys.length * 2];
+        used = new boolean[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldUsed[j]) {
+                int i = slot(oldKeys[j]);
+                while (used[i]) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                used[i] = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package configgen.util;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongHashSetTest {
+
+    @Test
+    public void sameAsHashSet() {
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        Random r = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            long v = r.nextInt(5000) - 2500L;
+            if (i % 7 == 0) {
+                v = ((long) r.nextInt() << 32) | (r.nextInt() & 0xFFFFFFFFL);
+            }
+            assertEquals(expected.add(v), set.add(v));
+        }
+        assertEquals(expected.size(), set.size());
+        for (long v = -3000; v < 3000; v++) {
+            assertEquals(expected.contains(v), set.contains(v));
+        }
+    }
+
+    @Test
+    public void zeroAndMinValue() {
+        LongHashSet set = new LongHashSet(0);
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertFalse(set.contains(Long.MAX_VALUE));
+    }
+}
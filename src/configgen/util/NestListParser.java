@@ -5,7 +5,7 @@ import java.util.List;
 
 public class NestListParser {
 
-    private static StringBuilder field = new StringBuilder(128); //这里假设是单线程
+    private static final ThreadLocal<StringBuilder> fields = ThreadLocal.withInitial(() -> new StringBuilder(128)); //多个表并行构造时用
 
     private enum NestListState {
         START, NO_QUOTE, QUOTE, QUOTE2, IN_PARENTHESES, PARENTHESES_OK
@@ -24,6 +24,7 @@ public class NestListParser {
     // "a,(b,c)" 解析为一段                <1>a        <2>b,c
     // "a,(b,(c1,c2)),d(e,f)" 解析为三段： <1>a        <2>b,(c1,c2)        <3>d(e,f)
     public static List<String> parseNestList(String str) {
+        StringBuilder field = fields.get();
         NestListState state = NestListState.START;
         ArrayList<String> list = new ArrayList<>();
         field.setLength(0);
@@ -145,6 +146,7 @@ public class NestListParser {
 
     // "a(b,c)" 解析为两段：  <1>a   <2>b,c
     public static List<String> parseFunction(String str) {
+        StringBuilder field = fields.get();
         FunctionState state = FunctionState.START;
         ArrayList<String> list = new ArrayList<>(2);
         field.setLength(0);
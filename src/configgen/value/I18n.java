@@ -4,6 +4,7 @@ import configgen.util.CSVParser;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,7 +18,6 @@ public final class I18n {
     }
 
     private Map<String, Map<String, String>> map = null;
-    private Map<String, String> curTable = null;
     private boolean isCRLFAsLF;
 
 
@@ -32,19 +32,18 @@ public final class I18n {
 
     public I18n(Path path, String encoding, boolean crlfaslf) {
         map = new HashMap<>();
-        List<List<String>> rows = CSVParser.readFromFile(path, encoding);
-        List<String> row0 = rows.get(0);
-        if (row0 == null) {
-            throw new IllegalArgumentException("国际化i18n文件为空");
-        }
-        if (row0.size() != 3) {
-            throw new IllegalArgumentException("国际化i18n文件列数不为3");
-        }
-
         isCRLFAsLF = crlfaslf;
-        for (List<String> row : rows) {
+        boolean[] hasRow = {false};
+        CSVParser.readFromFile(path, encoding, (index, row) -> {
+            if (index == 0) {
+                hasRow[0] = true;
+                if (row.size() != 3) {
+                    throw new IllegalArgumentException("国际化i18n文件列数不为3");
+                }
+            }
+
             if (CSVParser.isEmptyRecord(row)) {
-                continue;
+                return;
             }
             if (row.size() != 3) {
                 System.out.println(row + " 不是3列，被忽略");
@@ -57,6 +56,9 @@ public final class I18n {
                 Map<String, String> m = map.computeIfAbsent(table, k -> new HashMap<>());
                 m.put(raw, i18);
             }
+        });
+        if (!hasRow[0]) {
+            throw new IllegalArgumentException("国际化i18n文件为空");
         }
     }
 
@@ -73,42 +75,64 @@ public final class I18n {
         this.collector = collector;
     }
 
-    public void enterTable(String table) {
-        if (collector != null) {
-            collector.enterTable(table);
-        }
+    /**
+     * 每个表一个，VTable构造时用，不改I18n的状态，所以多个表可以并行构造。
+     * 有collector时先记下文本，构造完后由VDb按表顺序调用collect交给collector，保证输出顺序一致
+     */
+    public TableI18n forTable(String table) {
+        Map<String, String> texts = map != null ? map.get(table) : null;
+        return new TableI18n(table, texts, collector != null);
+    }
 
-        if (map == null) {
+    void collect(TableI18n tableI18n) {
+        if (collector == null || tableI18n.collected == null) {
             return;
         }
-        curTable = map.get(table);
+        collector.enterTable(tableI18n.table);
+        List<String> collected = tableI18n.collected;
+        for (int i = 0; i < collected.size(); i += 2) {
+            collector.enterText(collected.get(i), collected.get(i + 1));
+        }
     }
 
-    public String enterText(String raw) {
-        if (collector == null && curTable == null) {
-            return null;
+    public final class TableI18n {
+        private final String table;
+        private final Map<String, String> texts;
+        private final List<String> collected; // original，text交替放
+
+        private TableI18n(String table, Map<String, String> texts, boolean collect) {
+            this.table = table;
+            this.texts = texts;
+            this.collected = collect ? new ArrayList<>() : null;
         }
 
-        raw = normalizeRaw(raw);
-        String text;
-        String res;
-        if (curTable != null) {
-            text = curTable.get(raw);
-            if (text != null && !text.isEmpty()) {
-                res = text;
+        public String enterText(String raw) {
+            if (collected == null && texts == null) {
+                return null;
+            }
+
+            raw = normalizeRaw(raw);
+            String text;
+            String res;
+            if (texts != null) {
+                text = texts.get(raw);
+                if (text != null && !text.isEmpty()) {
+                    res = text;
+                } else {
+                    res = null;
+                    text = "";
+                }
             } else {
-                res = null;
                 text = "";
+                res = null;
             }
-        } else {
-            text = "";
-            res = null;
-        }
 
-        if (collector != null) {
-            collector.enterText(raw, text);
+            if (collected != null) {
+                collected.add(raw);
+                collected.add(text);
+            }
+            return res;
         }
-        return res;
     }
 
 }
@@ -0,0 +1,156 @@
+package configgen.value;
+
+import configgen.type.TInt;
+import configgen.type.TLong;
+import configgen.type.Type;
+import configgen.util.LongHashSet;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 表的一个主键或唯一键的索引，外键校验时用，查找不分配对象。
+ * 单列int，long和两列int的键放到LongHashSet里（两列int拼成一个long），
+ * 其他单列键直接用键集合，其他多列键按元组开放寻址，用引用方的列值直接算hash和比较，不用构造VList
+ */
+final class KeyIndex {
+    private enum Kind {
+        INT, LONG, INT2, VALUE, TUPLE
+    }
+
+    private final Kind kind;
+    private final LongHashSet longs;
+    private final Set<Value> values;
+    private final Value[][] tuples;
+    private final int tupleMask;
+
+    KeyIndex(Collection<Type> keyTypes, Set<Value> keyValueSet) {
+        Type[] types = keyTypes.toArray(new Type[0]);
+        if (types.length == 1 && types[0] instanceof TInt) {
+            kind = Kind.INT;
+        } else if (types.length == 1 && types[0] instanceof TLong) {
+            kind = Kind.LONG;
+        } else if (types.length == 1) {
+            kind = Kind.VALUE;
+        } else if (types.length == 2 && types[0] instanceof TInt && types[1] instanceof TInt) {
+            kind = Kind.INT2;
+        } else {
+            kind = Kind.TUPLE;
+        }
+
+        LongHashSet ls = null;
+        Value[][] ts = null;
+        int tm = 0;
+        switch (kind) {
+            case INT:
+                ls = new LongHashSet(keyValueSet.size());
+                for (Value v : keyValueSet) {
+                    ls.add(((VInt) v).value);
+                }
+                break;
+            case LONG:
+                ls = new LongHashSet(keyValueSet.size());
+                for (Value v : keyValueSet) {
+                    ls.add(((VLong) v).value);
+                }
+                break;
+            case INT2:
+                ls = new LongHashSet(keyValueSet.size());
+                for (Value v : keyValueSet) {
+                    List<Value> vs = ((VList) v).getList();
+                    ls.add(pack(((VInt) vs.get(0)).value, ((VInt) vs.get(1)).value));
+                }
+                break;
+            case TUPLE:
+                int capacity = 16;
+                while (capacity < keyValueSet.size() * 2) {
+                    capacity <<= 1;
+                }
+                ts = new Value[capacity][];
+                tm = capacity - 1;
+                for (Value v : keyValueSet) {
+                    Value[] tuple = ((VList) v).getList().toArray(new Value[0]);
+                    int i = slot(v.hashCode(), tm); // VList的hashCode与下面contains里算的一致
+                    while (ts[i] != null) {
+                        i = (i + 1) & tm;
+                    }
+                    ts[i] = tuple;
+                }
+                break;
+            default:
+                break;
+        }
+        longs = ls;
+        values = kind == Kind.VALUE ? keyValueSet : null;
+        tuples = ts;
+        tupleMask = tm;
+    }
+
+    private static int slot(int hash, int mask) {
+        int h = hash * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static long pack(int a, int b) {
+        return ((long) a << 32) | (b & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 单列外键
+     */
+    boolean contains(Value v) {
+        switch (kind) {
+            case INT:
+                return v instanceof VInt && longs.contains(((VInt) v).value);
+            case LONG:
+                return v instanceof VLong && longs.contains(((VLong) v).value);
+            case VALUE:
+                return values.contains(v);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 多列外键，键是beanValues里cols这几列
+     */
+    boolean contains(List<Value> beanValues, Type[] cols) {
+        switch (kind) {
+            case INT2: {
+                if (cols.length != 2) {
+                    return false;
+                }
+                Value a = beanValues.get(cols[0].getColumnIndex());
+                Value b = beanValues.get(cols[1].getColumnIndex());
+                return a instanceof VInt && b instanceof VInt && longs.contains(pack(((VInt) a).value, ((VInt) b).value));
+            }
+            case TUPLE: {
+                int h = 1;
+                for (Type col : cols) {
+                    h = 31 * h + beanValues.get(col.getColumnIndex()).hashCode();
+                }
+                for (int i = slot(h, tupleMask); tuples[i] != null; i = (i + 1) & tupleMask) {
+                    if (tupleEquals(tuples[i], beanValues, cols)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            default:
+                return false;
+        }
+    }
+
+    private static boolean tupleEquals(Value[] tuple, List<Value> beanValues, Type[] cols) {
+        if (tuple.length != cols.length) {
+            return false;
+        }
+        for (int i = 0; i < cols.length; i++) {
+            if (!tuple[i].equals(beanValues.get(cols[i].getColumnIndex()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
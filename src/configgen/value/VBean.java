@@ -19,7 +19,7 @@ public class VBean extends VComposite {
     private List<Value> values;
     private final VBean childDynamicVBean;
 
-    VBean(TBean tbean, List<Cell> data, boolean compressAsOne) {
+    VBean(TBean tbean, List<Cell> data, boolean compressAsOne, I18n.TableI18n i18n) {
         super(tbean, data);
         tBean = tbean;
 
@@ -50,7 +50,7 @@ public class VBean extends VComposite {
             String childDynamicBeanName = parsed.get(0).data;
             TBean childTBean = tBean.getChildDynamicBeanByName(childDynamicBeanName);
             require(Objects.nonNull(childTBean), "子Bean不存在", childDynamicBeanName);
-            childDynamicVBean = new VBean(childTBean, parsed.subList(1, parsed.size()), compressAsOne);
+            childDynamicVBean = new VBean(childTBean, parsed.subList(1, parsed.size()), compressAsOne, i18n);
             values = new ArrayList<>();
         } else {
             childDynamicVBean = null;
@@ -58,7 +58,7 @@ public class VBean extends VComposite {
             int s = 0;
             for (Type t : tBean.getColumns()) {
                 int span = compressAsOne ? 1 : t.columnSpan();
-                Value v = Value.create(t, parsed.subList(s, s + span), compressAsOne);
+                Value v = Value.create(t, parsed.subList(s, s + span), compressAsOne, i18n);
                 values.add(v);
                 s += span;
             }
@@ -88,31 +88,28 @@ public class VBean extends VComposite {
     }
 
     @Override
-    public void verifyConstraint() {
+    public void verifyConstraint(VDb db) {
         if (childDynamicVBean != null) {
-            childDynamicVBean.verifyConstraint();
+            childDynamicVBean.verifyConstraint(db);
             return;
         }
 
-        verifyRefs();
+        verifyRefs(db);
         for (Value value : values) {
-            value.verifyConstraint();
+            value.verifyConstraint(db);
         }
         for (TForeignKey fk : tBean.getMRefs()) {
             if (isCellEmpty()) {
                 require(fk.foreignKeyDefine.refType == ForeignKey.RefType.NULLABLE, "空数据，外键必须nullable", fk.foreignKeyDefine);
             } else {
-                ArrayList<Value> vs = new ArrayList<>();
-                for (Type col : fk.thisTableKeys) {
-                    vs.add(values.get(col.getColumnIndex()));
+                KeyIndex keyIndex = db.getVTable(fk.refTable.name).getKeyIndex(fk.foreignKeyDefine.ref.cols);
+                if (!keyIndex.contains(values, fk.thisTableKeys)) {
+                    ArrayList<Value> vs = new ArrayList<>();
+                    for (Type col : fk.thisTableKeys) {
+                        vs.add(values.get(col.getColumnIndex()));
+                    }
+                    error("外键未找到", fk.refTable, new VList(vs));
                 }
-                VList keyValue = new VList(vs);
-
-                if (fk.cache == null) {
-                    VTable vtable = VDb.getCurrent().getVTable(fk.refTable.name);
-                    fk.cache = fk.foreignKeyDefine.ref.refToPrimaryKey() ? vtable.primaryKeyValueSet : vtable.uniqueKeyValueSetMap.get(String.join(",", fk.foreignKeyDefine.ref.cols));
-                }
-                require(fk.cache.contains(keyValue), "外键未找到", fk.refTable, keyValue);
             }
         }
     }
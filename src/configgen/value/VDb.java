@@ -2,49 +2,169 @@ package configgen.value;
 
 import configgen.Node;
 import configgen.data.DDb;
+import configgen.data.DTable;
 import configgen.type.TDb;
 import configgen.type.TTable;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class VDb extends Node {
-    private static VDb current; //约定一次处理一个，减少内存占用
-
-    static VDb getCurrent() {
-        return current;
-    }
+    private static final int VERIFY_CHUNK_SIZE = 2048; //并行校验时大表按行切块
 
     private final TDb tDb;
     private final I18n i18n;
+    private final int threads;
     private Map<String, VTable> vTables;
 
     public VDb(TDb tdb, DDb ddb, I18n i18n) {
+        this(tdb, ddb, i18n, 1);
+    }
+
+    /**
+     * @param threads 构造和校验VTable的线程数，<=1 则单线程。
+     *                多线程时表的顺序，出错信息，I18n.Collector收到的内容都与单线程一致
+     */
+    public VDb(TDb tdb, DDb ddb, I18n i18n, int threads) {
         super(null, "value");
         this.tDb = tdb;
         this.i18n = i18n;
+        this.threads = threads;
         vTables = new LinkedHashMap<>(tdb.getTTables().size());
-        current = this;
+        List<VTable> tables = new ArrayList<>(tdb.getTTables().size());
+        List<DTable> dTables = new ArrayList<>(tdb.getTTables().size());
         for (TTable tTable : tdb.getTTables()) {
-            try {
-                VTable vt = new VTable(this, tTable, ddb.getDTable(tTable.name));
-                vTables.put(tTable.name, vt);
-            } catch (Throwable e) {
-                throw new AssertionError(tTable.name + ",这个表数据构造出错", e);
-            }
+            VTable vt = new VTable(this, tTable);
+            vTables.put(tTable.name, vt);
+            tables.add(vt);
+            dTables.add(ddb.getDTable(tTable.name));
         }
+        build(tables, dTables);
     }
 
+    private void build(List<VTable> tables, List<DTable> dTables) {
+        List<I18n.TableI18n> tableI18ns = new ArrayList<>(tables.size());
+        for (VTable vt : tables) {
+            tableI18ns.add(i18n.forTable(vt.name));
+        }
+
+        List<Runnable> tasks = new ArrayList<>(tables.size());
+        List<String> errors = new ArrayList<>(tables.size());
+        for (int i = 0; i < tables.size(); i++) {
+            VTable vt = tables.get(i);
+            DTable dt = dTables.get(i);
+            I18n.TableI18n ti = tableI18ns.get(i);
+            tasks.add(() -> vt.build(dt, ti));
+            errors.add(vt.name + ",这个表数据构造出错");
+        }
+        runAll(tasks, errors);
+
+        for (I18n.TableI18n ti : tableI18ns) {
+            i18n.collect(ti);
+        }
+    }
+
+    /**
+     * 键集合在构造时已经建好，校验只读，所以threads>1时按表和行区间并行校验，出错信息与单线程一致
+     */
     public void verifyConstraint() {
+        verify(vTables.values());
+    }
+
+    private void verify(Collection<VTable> tables) {
+        List<Runnable> tasks = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (VTable vt : tables) {
+            String error = vt.name + ",这个表数据约束检验出错";
+            int size = vt.getVBeanList().size();
+            if (threads <= 1) {
+                tasks.add(vt::verifyConstraint);
+                errors.add(error);
+                continue;
+            }
+            for (int from = 0; from < size; from += VERIFY_CHUNK_SIZE) {
+                int f = from;
+                int t = Math.min(size, from + VERIFY_CHUNK_SIZE);
+                tasks.add(() -> vt.verifyConstraint(f, t));
+                errors.add(error);
+            }
+            tasks.add(vt::verifyPrimaryKeySeq);
+            errors.add(error);
+        }
+        runAll(tasks, errors);
+    }
+
+    /**
+     * threads>1时并行执行，但按顺序等待，抛出顺序上第一个错误，包装为errors里对应的信息，与单线程顺序执行一致
+     */
+    private void runAll(List<Runnable> tasks, List<String> errors) {
+        if (threads <= 1 || tasks.size() <= 1) {
+            for (int i = 0; i < tasks.size(); i++) {
+                try {
+                    tasks.get(i).run();
+                } catch (Throwable e) {
+                    throw new AssertionError(errors.get(i), e);
+                }
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, tasks.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<>(tasks.size());
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(ex);
+                } catch (ExecutionException ex) {
+                    throw new AssertionError(errors.get(i), ex.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * watch模式用，用新的DTable重建这些表，再校验这些表和引用到它们的表。
+     * 出错后这个VDb处于部分更新的状态，不能再用
+     */
+    public void reloadTables(Collection<DTable> dTables) {
+        List<VTable> tables = new ArrayList<>(dTables.size());
+        Set<TTable> changed = new LinkedHashSet<>();
+        for (DTable dTable : dTables) {
+            TTable tTable = tDb.getTTable(dTable.name);
+            removeChild(vTables.get(tTable.name));
+            VTable vt = new VTable(this, tTable);
+            vTables.put(tTable.name, vt);
+            tables.add(vt);
+            changed.add(tTable);
+        }
+        build(tables, new ArrayList<>(dTables));
+
+        List<VTable> toVerify = new ArrayList<>();
         for (VTable vTable : vTables.values()) {
-            try {
-                vTable.verifyConstraint();
-            } catch (Throwable e) {
-                throw new AssertionError(vTable.name + ",这个表数据约束检验出错", e);
+            TTable tTable = vTable.getTTable();
+            if (changed.contains(tTable) || !Collections.disjoint(tTable.getRefTables(), changed)) {
+                toVerify.add(vTable);
             }
         }
+        verify(toVerify);
     }
 
     public TDb getTDb() {
@@ -63,7 +183,4 @@ public class VDb extends Node {
         return vTables.get(tableName);
     }
 
-    I18n getI18n() {
-        return i18n;
-    }
 }
@@ -12,7 +12,7 @@ import java.util.stream.Collectors;
 public class VList extends VComposite {
     private ArrayList<Value> list;
 
-    VList(TList type, List<Cell> data, boolean compressAsOne) {
+    VList(TList type, List<Cell> data, boolean compressAsOne, I18n.TableI18n i18n) {
         super(type, data);
 
         List<Cell> parsed;
@@ -33,7 +33,7 @@ public class VList extends VComposite {
         int vc = compressAsOne ? 1 : type.value.columnSpan();  // 注意这里compressAsOne的自上而下一直传递的特性
         for (int s = 0; s < parsed.size(); s += vc) {
             if (!parsed.get(s).data.isEmpty()) { //first as a null clue, see code generator
-                list.add(Value.create(type.value, parsed.subList(s, s + vc), compressAsOne));
+                list.add(Value.create(type.value, parsed.subList(s, s + vc), compressAsOne, i18n));
             } else {
                 for (Cell dc : parsed.subList(s, s + vc)) {
                     require(dc.data.isEmpty(), "list的item第一个为空格后，之后必须也都是空格", dc);
@@ -68,9 +68,9 @@ public class VList extends VComposite {
     }
 
     @Override
-    public void verifyConstraint() {
+    public void verifyConstraint(VDb db) {
         for (Value value : list) {
-            value.verifyConstraint();
+            value.verifyConstraint(db);
         }
     }
 
@@ -11,7 +11,7 @@ import java.util.stream.Collectors;
 public class VMap extends VComposite {
     private final Map<Value, Value> map = new LinkedHashMap<>();
 
-    VMap(TMap type, List<Cell> data, boolean compressAsOne) {
+    VMap(TMap type, List<Cell> data, boolean compressAsOne, I18n.TableI18n i18n) {
         super(type, data);
 
         List<Cell> parsed;
@@ -28,8 +28,8 @@ public class VMap extends VComposite {
         int vc = compressAsOne ? 1 : type.value.columnSpan();
         for (int s = 0; s < parsed.size(); s += kc + vc) {
             if (!parsed.get(s).data.isEmpty()) {
-                Value key = Value.create(type.key, parsed.subList(s, s + kc), compressAsOne);
-                Value value = Value.create(type.value, parsed.subList(s + kc, s + kc + vc), compressAsOne);
+                Value key = Value.create(type.key, parsed.subList(s, s + kc), compressAsOne, i18n);
+                Value value = Value.create(type.value, parsed.subList(s + kc, s + kc + vc), compressAsOne, i18n);
                 require(null == map.put(key, value), "字典key重复");
             } else {
                 for (Cell dc : parsed.subList(s, s + kc + vc)) {
@@ -49,10 +49,10 @@ public class VMap extends VComposite {
     }
 
     @Override
-    public void verifyConstraint() {
+    public void verifyConstraint(VDb db) {
         map.forEach((k, v) -> {
-            k.verifyConstraint();
-            v.verifyConstraint();
+            k.verifyConstraint(db);
+            v.verifyConstraint(db);
         });
     }
 
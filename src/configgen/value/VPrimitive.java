@@ -21,8 +21,8 @@ public abstract class VPrimitive extends Value {
     public abstract boolean checkRange(Range range);
 
     @Override
-    public void verifyConstraint() {
-        verifyRefs();
+    public void verifyConstraint(VDb db) {
+        verifyRefs(db);
         if (type.getConstraint().range != null) {
             require(checkRange(type.getConstraint().range), "取值范围错误，范围是", type.getConstraint().range, "值是", raw);
         }
@@ -8,14 +8,14 @@ import java.util.List;
 public class VString extends VPrimitive {
     public final String value; //生成代码用这个
 
-    VString(TString type, List<Cell> data) {
+    VString(TString type, List<Cell> data, I18n.TableI18n i18n) {
         super(type, data);
 
         if (type.subtype == TString.Subtype.STRING) {
             value = raw.data;
         } else {
             String originalValue = raw.data;
-            String v = VDb.getCurrent().getI18n().enterText(originalValue);
+            String v = i18n.enterText(originalValue);
             value = v != null ? v : originalValue;
         }
     }
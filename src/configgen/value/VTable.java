@@ -5,7 +5,6 @@ import configgen.data.DTable;
 import configgen.define.Table;
 import configgen.type.TTable;
 import configgen.type.Type;
-import configgen.util.CSVParser;
 
 import java.util.*;
 
@@ -14,41 +13,56 @@ public class VTable extends Node {
     private List<VBean> vBeanList;
     final Set<Value> primaryKeyValueSet = new LinkedHashSet<>();
     final Map<String, Set<Value>> uniqueKeyValueSetMap = new LinkedHashMap<>();
+    private KeyIndex primaryKeyIndex;
+    private String[][] uniqueKeyNames;
+    private KeyIndex[] uniqueKeyIndexes;
 
     private final Set<String> enumNames = new LinkedHashSet<>();
     private final Map<String, Integer> enumName2IntegerValueMap = new LinkedHashMap<>();
 
-    public VTable(VDb parent, TTable ttable, DTable dtable) {
+    VTable(VDb parent, TTable ttable) {
         super(parent, ttable.name);
         tTable = ttable;
-        parent.getI18n().enterTable(name);
+    }
+
+    /**
+     * 构造数据，只读dtable和类型，只写自己，可以和其他表并行
+     */
+    void build(DTable dtable, I18n.TableI18n i18n) {
         List<Integer> columnIndexes = new ArrayList<>();
-        ttable.getTBean().getColumnMap().forEach((fn, type) -> columnIndexes.addAll(dtable.getColumnIndexes(fn)));
+        tTable.getTBean().getColumnMap().forEach((fn, type) -> columnIndexes.addAll(dtable.getColumnIndexes(fn)));
         require(columnIndexes.size() > 0);
 
-        vBeanList = new ArrayList<>(dtable.getRecordList().size());
-        int row = 1;
-        for (List<String> rowData : dtable.getRecordList()) {
-            row++; // 从2开始
-            if (CSVParser.isEmptyRecord(rowData)) {
+        int recordCount = dtable.getRecordCount();
+        vBeanList = new ArrayList<>(recordCount);
+        for (int record = 0; record < recordCount; record++) {
+            if (dtable.isEmptyRecord(record)) {
                 continue;
             }
+            int row = record + 2; // 从2开始
             List<Cell> cells = new ArrayList<>(columnIndexes.size());
             for (Integer columnIndex : columnIndexes) {
-                Cell c = new Cell(row, columnIndex, rowData.get(columnIndex));
+                Cell c = new Cell(row, columnIndex, dtable.getCell(record, columnIndex));
                 cells.add(c);
             }
 
-            VBean vbean = new VBean(ttable.getTBean(), cells, false);
+            VBean vbean = new VBean(tTable.getTBean(), cells, false, i18n);
             vBeanList.add(vbean);
         }
 
         // 收集主键和唯一键
         extractKeyValues(tTable.getPrimaryKey().values(), primaryKeyValueSet);
-        for (Map<String, Type> uniqueKey : tTable.getUniqueKeys()) {
+        primaryKeyIndex = new KeyIndex(tTable.getPrimaryKey().values(), primaryKeyValueSet);
+        int n = tTable.getUniqueKeys().size();
+        uniqueKeyNames = new String[n][];
+        uniqueKeyIndexes = new KeyIndex[n];
+        for (int i = 0; i < n; i++) {
+            Map<String, Type> uniqueKey = tTable.getUniqueKeys().get(i);
             Set<Value> res = new HashSet<>();
             extractKeyValues(uniqueKey.values(), res);
             uniqueKeyValueSetMap.put(String.join(",", uniqueKey.keySet()), res);
+            uniqueKeyNames[i] = uniqueKey.keySet().toArray(new String[0]);
+            uniqueKeyIndexes[i] = new KeyIndex(uniqueKey.values(), res);
         }
 
         // 收集枚举
@@ -116,10 +130,37 @@ public class VTable extends Node {
 
     }
 
+    /**
+     * 外键引用的键索引，refCols为空表示引用主键。构造完后不再修改，可以多线程同时读
+     */
+    KeyIndex getKeyIndex(String[] refCols) {
+        if (refCols.length == 0) {
+            return primaryKeyIndex;
+        }
+        for (int i = 0; i < uniqueKeyNames.length; i++) {
+            if (Arrays.equals(uniqueKeyNames[i], refCols)) {
+                return uniqueKeyIndexes[i];
+            }
+        }
+        return null;
+    }
+
     void verifyConstraint() {
-        for (VBean vBean : vBeanList) {
-            vBean.verifyConstraint();
+        verifyConstraint(0, vBeanList.size());
+        verifyPrimaryKeySeq();
+    }
+
+    /**
+     * 校验[from, to)这些行，不同的行区间可以并行
+     */
+    void verifyConstraint(int from, int to) {
+        VDb db = (VDb) parent;
+        for (VBean vBean : vBeanList.subList(from, to)) {
+            vBean.verifyConstraint(db);
         }
+    }
+
+    void verifyPrimaryKeySeq() {
         if (tTable.getTableDefine().isPrimaryKeySeq) {
             int seq = 1;
             for (Value value : primaryKeyValueSet) {
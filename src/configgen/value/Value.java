@@ -20,22 +20,19 @@ public abstract class Value {
 
     public abstract void accept(ValueVisitor visitor);
 
-    public abstract void verifyConstraint();
+    public abstract void verifyConstraint(VDb db);
 
     public abstract boolean isCellEmpty();
 
     public abstract void collectCells(List<Cell> cells);
 
-    void verifyRefs() {
+    void verifyRefs(VDb db) {
         for (SRef sref : type.getConstraint().references) {
             if (isCellEmpty()) {
                 require(sref.refNullable, "有空格子，则外键必须是nullable的", sref.refTable);
             } else {
-                if (sref.cache == null) {
-                    VTable vtable = VDb.getCurrent().getVTable(sref.refTable.name);
-                    sref.cache = sref.refToPrimaryKey() ? vtable.primaryKeyValueSet : vtable.uniqueKeyValueSetMap.get(String.join(",", sref.refCols));
-                }
-                require(sref.cache.contains(this), "外键未找到", sref.refTable);
+                KeyIndex keyIndex = db.getVTable(sref.refTable.name).getKeyIndex(sref.refCols);
+                require(keyIndex.contains(this), "外键未找到", sref.refTable);
             }
         }
     }
@@ -55,7 +52,7 @@ public abstract class Value {
         return Arrays.stream(args).map(Objects::toString).collect(Collectors.joining(","));
     }
 
-    public static Value create(Type t, List<Cell> data, boolean compressAsOne) {
+    public static Value create(Type t, List<Cell> data, boolean compressAsOne, I18n.TableI18n i18n) {
         return t.accept(new TypeVisitorT<Value>() {
             @Override
             public Value visit(TBool type) {
@@ -79,17 +76,17 @@ public abstract class Value {
 
             @Override
             public Value visit(TString type) {
-                return new VString(type, data);
+                return new VString(type, data, i18n);
             }
 
             @Override
             public Value visit(TList type) {
-                return new VList(type, data, compressAsOne);
+                return new VList(type, data, compressAsOne, i18n);
             }
 
             @Override
             public Value visit(TMap type) {
-                return new VMap(type, data, compressAsOne);
+                return new VMap(type, data, compressAsOne, i18n);
             }
 
             @Override
@@ -99,7 +96,7 @@ public abstract class Value {
 
             @Override
             public Value visit(TBeanRef type) {
-                return new VBean(type.tBean, data, compressAsOne || type.compressAsOne);
+                return new VBean(type.tBean, data, compressAsOne || type.compressAsOne, i18n);
             }
         });
     }
@@ -39,6 +39,13 @@ namespace Config
             return null;
         }
 
+        public Interner Interner { get; set; }
+
+        public T Intern<T>(string type, T value) where T : class
+        {
+            return Interner != null ? Interner.Intern(type, value) : value;
+        }
+
         public int ReadSize()
         {
             return _byter.ReadInt32();
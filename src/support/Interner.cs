@@ -0,0 +1,76 @@
+using System.Collections;
+using System.Collections.Generic;
+using System.Text;
+
+namespace Config
+{
+    public class Interner
+    {
+        private class ValueComparer : IEqualityComparer<object>
+        {
+            public new bool Equals(object a, object b)
+            {
+                var la = a as IList;
+                var lb = b as IList;
+                if (la == null || lb == null)
+                    return object.Equals(a, b);
+                if (la.Count != lb.Count)
+                    return false;
+                for (var i = 0; i < la.Count; i++)
+                {
+                    if (!object.Equals(la[i], lb[i]))
+                        return false;
+                }
+                return true;
+            }
+
+            public int GetHashCode(object o)
+            {
+                var l = o as IList;
+                if (l == null)
+                    return o.GetHashCode();
+                var h = 1;
+                foreach (var e in l)
+                    h = 31 * h + (e == null ? 0 : e.GetHashCode());
+                return h;
+            }
+        }
+
+        private class Pool
+        {
+            public readonly Dictionary<object, object> Values = new Dictionary<object, object>(new ValueComparer());
+            public int Total;
+        }
+
+        private readonly SortedDictionary<string, Pool> _pools = new SortedDictionary<string, Pool>();
+
+        public T Intern<T>(string type, T value) where T : class
+        {
+            Pool pool;
+            if (!_pools.TryGetValue(type, out pool))
+            {
+                pool = new Pool();
+                _pools.Add(type, pool);
+            }
+            pool.Total++;
+            object old;
+            if (pool.Values.TryGetValue(value, out old))
+                return (T) old;
+            pool.Values.Add(value, value);
+            return value;
+        }
+
+        public string Report()
+        {
+            var sb = new StringBuilder();
+            foreach (var e in _pools)
+            {
+                var total = e.Value.Total;
+                var unique = e.Value.Values.Count;
+                var ratio = total == 0 ? 0 : 1.0 - (double) unique / total;
+                sb.AppendFormat("{0}: total {1}, unique {2}, dedup {3:P1}", e.Key, total, unique, ratio).AppendLine();
+            }
+            return sb.ToString();
+        }
+    }
+}
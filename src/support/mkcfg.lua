@@ -160,7 +160,10 @@ function mkcfg.table(self, uniqkeys, enumidx, refs, ...)
     mkcfg.i18n_table(self, uniqkeys, enumidx, refs, nil, ...)
 end
 
---- uniqkeys : {{allname, getname, keyidx1, keyidx2}, }
+--- index查不到时返回，不要改
+local emptylist = {}
+
+--- uniqkeys : {{allname, getname, keyidx1, keyidx2, isindex}, }，isindex为true时map的值是list
 function mkcfg.i18n_table(self, uniqkeys, enumidx, refs, textFields, ...)
     local fields = { ... }
     local get = mkbean(refs, textFields, fields)
@@ -168,7 +171,15 @@ function mkcfg.i18n_table(self, uniqkeys, enumidx, refs, textFields, ...)
         local allname, getname, _, k2 = unpack(uk)
         local map = {}
         self[allname] = map
-        if k2 == nil then
+        if uk[5] then
+            self[getname] = function(k, j)
+                local key = k
+                if k2 ~= nil then
+                    key = k + j * 10000000
+                end
+                return map[key] or emptylist
+            end
+        elseif k2 == nil then
             self[getname] = function(k)
                 return map[k]
             end
@@ -207,10 +218,21 @@ function mkcfg.i18n_table(self, uniqkeys, enumidx, refs, textFields, ...)
             for _, uk in ipairs(uniqkeys) do
                 local allname, _, k1, k2 = unpack(uk)
                 local all = self[allname]
+                local key
                 if k2 == nil then
-                    all[v[k1]] = v
+                    key = v[k1]
+                else
+                    key = v[k1] + v[k2] * 10000000
+                end
+                if uk[5] then
+                    local list = all[key]
+                    if list == nil then
+                        list = {}
+                        all[key] = list
+                    end
+                    list[#list + 1] = v
                 else
-                    all[v[k1] + v[k2] * 10000000] = v
+                    all[key] = v
                 end
             end
 